@@ -0,0 +1,51 @@
+package ru.practicum.shareit.benchmark;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.shareit.booking.dto.BookingShortDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item_request.dto.ItemRequestDto;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пропускная способность и перцентили задержки основных методов сервисов.
+ * Запуск: mvn -Pbenchmark -DskipTests verify; аллокации считает профилировщик gc из jmh.args.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Thread)
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ServiceBenchmark {
+    final Random random = new Random(7);
+
+    @Param({"20"})
+    int pageSize;
+
+    @Benchmark
+    public List<ItemDto> getAllItems(ShareItDataset dataset) {
+        return dataset.getItemService().getAllItems(dataset.randomUserId(random), 0, pageSize);
+    }
+
+    @Benchmark
+    public List<ItemDto> getItemByNameOrDescription(ShareItDataset dataset) {
+        return dataset.getItemService().getItemByNameOrDescription(dataset.randomSearchText(random),
+                dataset.randomUserId(random), dataset.randomFrom(random, pageSize), pageSize);
+    }
+
+    @Benchmark
+    public List<BookingShortDto> getBookingForItemsCurrentUser(ShareItDataset dataset) {
+        return dataset.getBookingService().getBookingForItemsCurrentUser(dataset.randomUserId(random), "ALL", 0, pageSize);
+    }
+
+    @Benchmark
+    public List<ItemRequestDto> getAllItemRequests(ShareItDataset dataset) {
+        return dataset.getItemRequestService().getAllItemRequests(0, pageSize, dataset.randomUserId(random));
+    }
+}
@@ -0,0 +1,182 @@
+package ru.practicum.shareit.benchmark;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.shareit.ShareItApp;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.booking.service.BookingStateCounters;
+import ru.practicum.shareit.booking.service.LastAndNextBookingRegistry;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchCache;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.item.service.ItemDetailCache;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.item_request.model.ItemRequest;
+import ru.practicum.shareit.item_request.repository.ItemRequestRepository;
+import ru.practicum.shareit.item_request.service.ItemRequestFeed;
+import ru.practicum.shareit.item_request.service.ItemRequestService;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Приложение на H2 в памяти, заполненное детерминированным набором данных.
+ * Размер набора задаётся параметрами users, itemsPerUser, bookingsPerItem и requests,
+ * например -p users=1000 -p bookingsPerItem=20; -p caches=false сбрасывает кэши перед каждым вызовом.
+ */
+@State(Scope.Benchmark)
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ShareItDataset {
+    static final String[] WORDS = {"дрель", "палатка", "отвёртка", "пила", "лестница", "велосипед", "самокат",
+            "перфоратор", "лодка", "гитара", "проектор", "шуруповёрт", "молоток", "фонарь", "спальник"};
+    static final String[] ADJECTIVES = {"аккумуляторная", "большая", "походная", "ручная", "складная",
+            "электрическая", "детская", "новая"};
+
+    @Param({"200"})
+    int users;
+    @Param({"10"})
+    int itemsPerUser;
+    @Param({"5"})
+    int bookingsPerItem;
+    @Param({"2000"})
+    int requests;
+    @Param({"true", "false"})
+    boolean caches;
+
+    ConfigurableApplicationContext context;
+    @Getter
+    ItemService itemService;
+    @Getter
+    BookingService bookingService;
+    @Getter
+    ItemRequestService itemRequestService;
+    long firstUserId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(ShareItApp.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.profiles.active=test",
+                        "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "--logging.level.root=WARN",
+                        "--logging.level.org.springframework.transaction.interceptor=WARN",
+                        "--logging.level.org.springframework.orm.jpa.JpaTransactionManager=WARN");
+        seed(new Random(42));
+        context.getBean(ItemSearchIndex.class).rebuild();
+        itemService = context.getBean(ItemService.class);
+        bookingService = context.getBean(BookingService.class);
+        itemRequestService = context.getBean(ItemRequestService.class);
+    }
+
+    @Setup(Level.Invocation)
+    public void clearCaches() {
+        if (caches) {
+            return;
+        }
+        context.getBean(ItemSearchCache.class).clear();
+        context.getBean(ItemDetailCache.class).clear();
+        context.getBean(LastAndNextBookingRegistry.class).clear();
+        context.getBean(BookingStateCounters.class).clear();
+        context.getBean(ItemRequestFeed.class).clear();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    public long randomUserId(Random random) {
+        return firstUserId + random.nextInt(users);
+    }
+
+    public String randomSearchText(Random random) {
+        String word = random.nextBoolean() ? WORDS[random.nextInt(WORDS.length)]
+                : ADJECTIVES[random.nextInt(ADJECTIVES.length)];
+        int length = 3 + random.nextInt(word.length() - 2);
+        int start = random.nextInt(word.length() - length + 1);
+        return word.substring(start, start + length);
+    }
+
+    public int randomFrom(Random random, int pageSize) {
+        int pages = Math.max(1, users * itemsPerUser / WORDS.length / pageSize);
+        return random.nextInt(pages) * pageSize;
+    }
+
+    private void seed(Random random) {
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        ItemRepository itemRepository = context.getBean(ItemRepository.class);
+        BookingRepository bookingRepository = context.getBean(BookingRepository.class);
+        ItemRequestRepository itemRequestRepository = context.getBean(ItemRequestRepository.class);
+        LocalDateTime now = LocalDateTime.now();
+
+        List<User> savedUsers = new ArrayList<>();
+        for (int i = 0; i < users; i++) {
+            savedUsers.add(User.builder().name("user" + i).email("user" + i + "@mail.ru").build());
+        }
+        savedUsers = userRepository.saveAll(savedUsers);
+        firstUserId = savedUsers.get(0).getId();
+
+        List<ItemRequest> savedRequests = new ArrayList<>();
+        for (int i = 0; i < requests; i++) {
+            savedRequests.add(ItemRequest.builder()
+                    .author(savedUsers.get(random.nextInt(users)))
+                    .created(now.minusMinutes(requests - i))
+                    .description("Нужна " + text(random))
+                    .build());
+        }
+        savedRequests = itemRequestRepository.saveAll(savedRequests);
+
+        List<Item> items = new ArrayList<>();
+        for (User owner : savedUsers) {
+            for (int i = 0; i < itemsPerUser; i++) {
+                String name = text(random);
+                items.add(Item.builder()
+                        .owner(owner)
+                        .name(name)
+                        .description(name + " " + text(random))
+                        .available(random.nextInt(10) > 0)
+                        .itemRequest(random.nextInt(4) == 0 && !savedRequests.isEmpty()
+                                ? savedRequests.get(random.nextInt(savedRequests.size())) : null)
+                        .build());
+            }
+        }
+        items = itemRepository.saveAll(items);
+
+        List<Booking> bookings = new ArrayList<>();
+        for (Item item : items) {
+            LocalDateTime start = now.minusDays(bookingsPerItem);
+            for (int i = 0; i < bookingsPerItem; i++) {
+                User booker = savedUsers.get(random.nextInt(users));
+                if (booker.getId() == item.getOwner().getId()) {
+                    continue;
+                }
+                bookings.add(Booking.builder()
+                        .item(item)
+                        .booker(booker)
+                        .start(start)
+                        .end(start.plusHours(12))
+                        .status(BookingStatus.values()[random.nextInt(BookingStatus.values().length)])
+                        .build());
+                start = start.plusDays(2);
+            }
+        }
+        bookingRepository.saveAll(bookings);
+    }
+
+    private String text(Random random) {
+        return ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " " + WORDS[random.nextInt(WORDS.length)];
+    }
+}
@@ -5,12 +5,17 @@ import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingShortDto;
 import ru.practicum.shareit.booking.dto.RequestBodyBookingDto;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.booking.service.BookingState;
+import ru.practicum.shareit.pagination.KeysetCursor;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @Slf4j
@@ -20,6 +25,7 @@ public class BookingController {
     final BookingService bookingService;
     final String headerUserValue = "X-Sharer-User-Id";
     final String pathBookingId = "/{bookingId}";
+    final String headerNextCursor = "X-Next-Cursor";
 
     @Autowired
     public BookingController(@Qualifier("BookingServiceImpl") BookingService bookingService) {
@@ -48,20 +54,49 @@ public class BookingController {
     }
 
     @GetMapping
-    public List<BookingDto> getBookingCurrentUser(@RequestHeader(value = headerUserValue, required = false) Long userId,
-                                                  @RequestParam(defaultValue = "ALL") String state,
-                                                  @RequestParam(defaultValue = "0") Integer from,
-                                                  @RequestParam(defaultValue = "10") Integer size) {
+    public ResponseEntity<List<BookingShortDto>> getBookingCurrentUser(@RequestHeader(value = headerUserValue, required = false) Long userId,
+                                                                  @RequestParam(defaultValue = "ALL") String state,
+                                                                  @RequestParam(defaultValue = "0") Integer from,
+                                                                  @RequestParam(defaultValue = "10") Integer size,
+                                                                  @RequestParam(required = false) String cursor) {
         log.info(String.format("%s %d", "Запрос на получение бронирований для пользователя с id =", userId));
-        return bookingService.getBookingCurrentUser(userId, state, from, size);
+        if (cursor == null) {
+            return ResponseEntity.ok(bookingService.getBookingCurrentUser(userId, state, from, size));
+        }
+        return withNextCursor(bookingService.getBookingCurrentUserAfter(userId, state, cursor, size), size);
     }
 
     @GetMapping("/owner")
-    public List<BookingDto> getBookingForItemsCurrentUser(@RequestHeader(value = headerUserValue, required = false) Long userId,
-                                                          @RequestParam(defaultValue = "ALL") String state,
-                                                          @RequestParam(defaultValue = "0") Integer from,
-                                                          @RequestParam(defaultValue = "10") Integer size) {
+    public ResponseEntity<List<BookingShortDto>> getBookingForItemsCurrentUser(@RequestHeader(value = headerUserValue, required = false) Long userId,
+                                                                          @RequestParam(defaultValue = "ALL") String state,
+                                                                          @RequestParam(defaultValue = "0") Integer from,
+                                                                          @RequestParam(defaultValue = "10") Integer size,
+                                                                          @RequestParam(required = false) String cursor) {
         log.info(String.format("%s %d", "Запрос на получение бронирований для вещей пользователя с id =", userId));
-        return bookingService.getBookingForItemsCurrentUser(userId, state, from, size);
+        if (cursor == null) {
+            return ResponseEntity.ok(bookingService.getBookingForItemsCurrentUser(userId, state, from, size));
+        }
+        return withNextCursor(bookingService.getBookingForItemsCurrentUserAfter(userId, state, cursor, size), size);
+    }
+
+    @GetMapping("/counts")
+    public Map<BookingState, Long> getBookingCountsCurrentUser(@RequestHeader(value = headerUserValue, required = false) Long userId) {
+        log.info(String.format("%s %d", "Запрос на получение количества бронирований для пользователя с id =", userId));
+        return bookingService.getBookingCountsCurrentUser(userId);
+    }
+
+    @GetMapping("/owner/counts")
+    public Map<BookingState, Long> getBookingCountsForItemsCurrentUser(@RequestHeader(value = headerUserValue, required = false) Long userId) {
+        log.info(String.format("%s %d", "Запрос на получение количества бронирований для вещей пользователя с id =", userId));
+        return bookingService.getBookingCountsForItemsCurrentUser(userId);
+    }
+
+    private ResponseEntity<List<BookingShortDto>> withNextCursor(List<BookingShortDto> bookings, Integer size) {
+        if (bookings.isEmpty() || bookings.size() < size) {
+            return ResponseEntity.ok(bookings);
+        }
+        BookingShortDto last = bookings.get(bookings.size() - 1);
+        String nextCursor = new KeysetCursor(last.getStart(), last.getId()).encode();
+        return ResponseEntity.ok().header(headerNextCursor, nextCursor).body(bookings);
     }
 }
@@ -0,0 +1,25 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AccessLevel;
+import lombok.Builder;
+import lombok.Data;
+import lombok.experimental.FieldDefaults;
+import ru.practicum.shareit.booking.model.BookingStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Бронирование в списках /bookings и /bookings/owner: вместо вещи и автора
+ * только их идентификаторы и название вещи.
+ */
+@Data
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class BookingShortDto {
+    long id;
+    BookingItemDto item;
+    LocalDateTime start;
+    LocalDateTime end;
+    BookerDto booker;
+    BookingStatus status;
+}
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.booking.dto;
+
+public class BookingShortDtoMapper {
+    public static BookingShortDto mapRow(BookingView bookingView) {
+        return BookingShortDto.builder()
+                .id(bookingView.getId())
+                .item(BookingItemDto.builder().id(bookingView.getItemId()).name(bookingView.getItemName()).build())
+                .booker(BookerDto.builder().id(bookingView.getBookerId()).build())
+                .status(bookingView.getStatus())
+                .start(bookingView.getStartDate())
+                .end(bookingView.getEndDate())
+                .build();
+    }
+}
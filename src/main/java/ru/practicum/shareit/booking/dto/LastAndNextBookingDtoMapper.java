@@ -9,4 +9,11 @@ public class LastAndNextBookingDtoMapper {
                 .bookerId(booking.getBooker().getId())
                 .build();
     }
+
+    public static LastAndNextBookingDto mapRow(ItemBookingView itemBookingView) {
+        return LastAndNextBookingDto.builder()
+                .id(itemBookingView.getId())
+                .bookerId(itemBookingView.getBookerId())
+                .build();
+    }
 }
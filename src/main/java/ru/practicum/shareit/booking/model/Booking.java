@@ -35,4 +35,7 @@ public class Booking {
     @Enumerated(EnumType.STRING)
     @Column(name = "booking_status", nullable = false)
     BookingStatus status;
+    @Version
+    @Column(name = "version", nullable = false)
+    long version;
 }
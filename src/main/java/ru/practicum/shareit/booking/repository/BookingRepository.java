@@ -3,65 +3,121 @@ package ru.practicum.shareit.booking.repository;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.booking.dto.BookingPeriodCountView;
+import ru.practicum.shareit.booking.dto.BookingStatusCountView;
+import ru.practicum.shareit.booking.dto.BookingView;
+import ru.practicum.shareit.booking.dto.ItemBookingView;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
-import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface BookingRepository extends JpaRepository<Booking, Long> {
-    @Query(value = "select b from Booking b where b.booker = :user order by b.start desc")
-    List<Booking> findAllBookingsForUser(User user, Pageable pageable);
-
-    @Query(value = "select b from Booking b where b.booker = :user and b.start < :start and b.end > :end order by b.start desc")
-    List<Booking> findCurrentBookingsForUser(User user, LocalDateTime start, LocalDateTime end, Pageable pageable);
-
-    @Query(value = "select b from Booking b where b.booker = :user and b.end < :end order by b.start desc")
-    List<Booking> findPastBookingsForUser(User user, LocalDateTime end, Pageable pageable);
-
-    @Query(value = "select b from Booking b where b.booker = :user and b.start > :start order by b.start desc")
-    List<Booking> findFutureBookingsForUser(User user, LocalDateTime start, Pageable pageable);
-
-    @Query(value = "select b from Booking b where b.booker = :user and b.status = :status order by b.start desc")
-    List<Booking> findWaitingOrRejectedBookingsForUser(User user, BookingStatus status, Pageable pageable);
-
-    @Query(value = "select b from Booking b where b.item in :items order by b.start desc")
-    List<Booking> findAllBookingsForItems(List<Item> items, Pageable pageable);
-
-    @Query(value = "select b from Booking b where b.item in :items and b.start < :start and b.end > :end order by b.start desc")
-    List<Booking> findCurrentBookingsForItems(List<Item> items, LocalDateTime start, LocalDateTime end, Pageable pageable);
-
-    @Query(value = "select b from Booking b where b.item in :items and b.end < :end order by b.start desc")
-    List<Booking> findPastBookingsForItems(List<Item> items, LocalDateTime end, Pageable pageable);
-
-    @Query(value = "select b from Booking b where b.item in :items and b.start > :start order by b.start desc")
-    List<Booking> findFutureBookingsForItems(List<Item> items, LocalDateTime start, Pageable pageable);
-
-    @Query(value = "select b from Booking b where b.item in :items and b.status = :status")
-    List<Booking> findWaitingOrRejectedBookingsForItems(List<Item> items, BookingStatus status, Pageable pageable);
-
-    @Query(value = "select * from bookings b " +
-            "left join items i on b.item_id = i.id " +
-            "left join users u on b.booker_id = u.id " +
-            "where b.item_id = :itemId " +
-            "and b.start_date < :start " +
-            "and b.booking_status = :status " +
-            "order by b.start_date desc " +
-            "limit 1", nativeQuery = true)
-    Booking findLastBooking(long itemId, LocalDateTime start, String status);
-
-    @Query(value = "select * from bookings b " +
-            "left join items i on b.item_id = i.id " +
-            "left join users u on b.booker_id = u.id " +
-            "where b.item_id = :itemId " +
-            "and b.start_date > :start " +
-            "and b.booking_status = :status " +
-            "order by b.start_date asc " +
-            "limit 1", nativeQuery = true)
-    Booking findNextBooking(long itemId, LocalDateTime start, String status);
-
-    @Query(value = "select b from Booking b where b.item = :item and b.booker = :user and b.status = :status and b.end < :end")
-    List<Booking> findPastBookingsForUserAndItem(Item item, User user, BookingStatus status, LocalDateTime end);
+    String SELECT_BOOKING_VIEW = "select b.id as id, b.start as startDate, b.end as endDate, b.status as status, " +
+            "b.item.id as itemId, b.item.name as itemName, b.booker.id as bookerId from Booking b ";
+    String ORDER_BY_START = " order by b.start desc, b.id desc";
+    String AFTER_CURSOR = " and (b.start < :cursorStart or (b.start = :cursorStart and b.id < :cursorId))" + ORDER_BY_START;
+
+    @Query(value = SELECT_BOOKING_VIEW + "where b.booker = :user" + ORDER_BY_START)
+    List<BookingView> findAllBookingsForUser(User user, Pageable pageable);
+
+    @Query(value = SELECT_BOOKING_VIEW + "where b.booker = :user" + AFTER_CURSOR)
+    List<BookingView> findAllBookingsForUserAfter(User user, LocalDateTime cursorStart, long cursorId, Pageable pageable);
+
+    @Query(value = SELECT_BOOKING_VIEW + "where b.booker = :user and b.start < :start and b.end > :end" + ORDER_BY_START)
+    List<BookingView> findCurrentBookingsForUser(User user, LocalDateTime start, LocalDateTime end, Pageable pageable);
+
+    @Query(value = SELECT_BOOKING_VIEW + "where b.booker = :user and b.start < :start and b.end > :end" + AFTER_CURSOR)
+    List<BookingView> findCurrentBookingsForUserAfter(User user, LocalDateTime start, LocalDateTime end, LocalDateTime cursorStart, long cursorId, Pageable pageable);
+
+    @Query(value = SELECT_BOOKING_VIEW + "where b.booker = :user and b.end < :end" + ORDER_BY_START)
+    List<BookingView> findPastBookingsForUser(User user, LocalDateTime end, Pageable pageable);
+
+    @Query(value = SELECT_BOOKING_VIEW + "where b.booker = :user and b.end < :end" + AFTER_CURSOR)
+    List<BookingView> findPastBookingsForUserAfter(User user, LocalDateTime end, LocalDateTime cursorStart, long cursorId, Pageable pageable);
+
+    @Query(value = SELECT_BOOKING_VIEW + "where b.booker = :user and b.start > :start" + ORDER_BY_START)
+    List<BookingView> findFutureBookingsForUser(User user, LocalDateTime start, Pageable pageable);
+
+    @Query(value = SELECT_BOOKING_VIEW + "where b.booker = :user and b.start > :start" + AFTER_CURSOR)
+    List<BookingView> findFutureBookingsForUserAfter(User user, LocalDateTime start, LocalDateTime cursorStart, long cursorId, Pageable pageable);
+
+    @Query(value = SELECT_BOOKING_VIEW + "where b.booker = :user and b.status = :status" + ORDER_BY_START)
+    List<BookingView> findWaitingOrRejectedBookingsForUser(User user, BookingStatus status, Pageable pageable);
+
+    @Query(value = SELECT_BOOKING_VIEW + "where b.booker = :user and b.status = :status" + AFTER_CURSOR)
+    List<BookingView> findWaitingOrRejectedBookingsForUserAfter(User user, BookingStatus status, LocalDateTime cursorStart, long cursorId, Pageable pageable);
+
+    @Query(value = SELECT_BOOKING_VIEW + "where b.item.owner = :owner" + ORDER_BY_START)
+    List<BookingView> findAllBookingsForOwner(User owner, Pageable pageable);
+
+    @Query(value = SELECT_BOOKING_VIEW + "where b.item.owner = :owner" + AFTER_CURSOR)
+    List<BookingView> findAllBookingsForOwnerAfter(User owner, LocalDateTime cursorStart, long cursorId, Pageable pageable);
+
+    @Query(value = SELECT_BOOKING_VIEW + "where b.item.owner = :owner and b.start < :start and b.end > :end" + ORDER_BY_START)
+    List<BookingView> findCurrentBookingsForOwner(User owner, LocalDateTime start, LocalDateTime end, Pageable pageable);
+
+    @Query(value = SELECT_BOOKING_VIEW + "where b.item.owner = :owner and b.start < :start and b.end > :end" + AFTER_CURSOR)
+    List<BookingView> findCurrentBookingsForOwnerAfter(User owner, LocalDateTime start, LocalDateTime end, LocalDateTime cursorStart, long cursorId, Pageable pageable);
+
+    @Query(value = SELECT_BOOKING_VIEW + "where b.item.owner = :owner and b.end < :end" + ORDER_BY_START)
+    List<BookingView> findPastBookingsForOwner(User owner, LocalDateTime end, Pageable pageable);
+
+    @Query(value = SELECT_BOOKING_VIEW + "where b.item.owner = :owner and b.end < :end" + AFTER_CURSOR)
+    List<BookingView> findPastBookingsForOwnerAfter(User owner, LocalDateTime end, LocalDateTime cursorStart, long cursorId, Pageable pageable);
+
+    @Query(value = SELECT_BOOKING_VIEW + "where b.item.owner = :owner and b.start > :start" + ORDER_BY_START)
+    List<BookingView> findFutureBookingsForOwner(User owner, LocalDateTime start, Pageable pageable);
+
+    @Query(value = SELECT_BOOKING_VIEW + "where b.item.owner = :owner and b.start > :start" + AFTER_CURSOR)
+    List<BookingView> findFutureBookingsForOwnerAfter(User owner, LocalDateTime start, LocalDateTime cursorStart, long cursorId, Pageable pageable);
+
+    @Query(value = SELECT_BOOKING_VIEW + "where b.item.owner = :owner and b.status = :status" + ORDER_BY_START)
+    List<BookingView> findWaitingOrRejectedBookingsForOwner(User owner, BookingStatus status, Pageable pageable);
+
+    @Query(value = SELECT_BOOKING_VIEW + "where b.item.owner = :owner and b.status = :status" + AFTER_CURSOR)
+    List<BookingView> findWaitingOrRejectedBookingsForOwnerAfter(User owner, BookingStatus status, LocalDateTime cursorStart, long cursorId, Pageable pageable);
+
+    @Query(value = "select b.item.id from Booking b where b.id = :bookingId")
+    Optional<Long> findItemIdById(long bookingId);
+
+    @Query(value = "select b.status as status, count(b) as count from Booking b where b.booker = :booker group by b.status")
+    List<BookingStatusCountView> countBookingStatusesForUser(User booker);
+
+    @Query(value = "select b.status as status, count(b) as count from Booking b where b.item.owner = :owner group by b.status")
+    List<BookingStatusCountView> countBookingStatusesForOwner(User owner);
+
+    @Query(value = "select b.start as startDate, b.end as endDate, count(b) as count from Booking b " +
+            "where b.booker = :booker and b.end >= :end group by b.start, b.end")
+    List<BookingPeriodCountView> countUnfinishedBookingPeriodsForUser(User booker, LocalDateTime end);
+
+    @Query(value = "select b.start as startDate, b.end as endDate, count(b) as count from Booking b " +
+            "where b.item.owner = :owner and b.end >= :end group by b.start, b.end")
+    List<BookingPeriodCountView> countUnfinishedBookingPeriodsForOwner(User owner, LocalDateTime end);
+
+    @Query(value = "select b.item.id as itemId, b.id as id, b.booker.id as bookerId, b.start as startDate from Booking b " +
+            "where b.item.id in :itemIds " +
+            "and b.status = :status " +
+            "and b.start = (select max(lb.start) from Booking lb " +
+            "where lb.item = b.item and lb.status = :status and lb.start < :start) " +
+            "order by b.id asc")
+    List<ItemBookingView> findLastBookings(Collection<Long> itemIds, LocalDateTime start, BookingStatus status);
+
+    @Query(value = "select b.item.id as itemId, b.id as id, b.booker.id as bookerId, b.start as startDate from Booking b " +
+            "where b.item.id in :itemIds " +
+            "and b.status = :status " +
+            "and b.start = (select min(nb.start) from Booking nb " +
+            "where nb.item = b.item and nb.status = :status and nb.start > :start) " +
+            "order by b.id asc")
+    List<ItemBookingView> findNextBookings(Collection<Long> itemIds, LocalDateTime start, BookingStatus status);
+
+    @Query(value = "select case when count(b) > 0 then true else false end from Booking b " +
+            "where b.item.id = :itemId and b.status = :status and b.start < :end and b.end > :start")
+    boolean isItemBookedBetween(long itemId, LocalDateTime start, LocalDateTime end, BookingStatus status);
+
+    boolean existsByItemIdAndBookerIdAndStatusAndEndBefore(long itemId, long bookerId, BookingStatus status, LocalDateTime end);
 }
\ No newline at end of file
@@ -1,9 +1,11 @@
 package ru.practicum.shareit.booking.service;
 
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingShortDto;
 import ru.practicum.shareit.booking.dto.RequestBodyBookingDto;
 
 import java.util.List;
+import java.util.Map;
 
 public interface BookingService {
     BookingDto addNewBooking(RequestBodyBookingDto requestBooking, Long userId);
@@ -12,7 +14,15 @@ public interface BookingService {
 
     BookingDto getBookingById(Long userId, long bookingId);
 
-    List<BookingDto> getBookingCurrentUser(Long userId, String state, Integer from, Integer size);
+    List<BookingShortDto> getBookingCurrentUser(Long userId, String state, Integer from, Integer size);
 
-    List<BookingDto> getBookingForItemsCurrentUser(Long userId, String state, Integer from, Integer size);
+    List<BookingShortDto> getBookingCurrentUserAfter(Long userId, String state, String cursor, Integer size);
+
+    List<BookingShortDto> getBookingForItemsCurrentUser(Long userId, String state, Integer from, Integer size);
+
+    List<BookingShortDto> getBookingForItemsCurrentUserAfter(Long userId, String state, String cursor, Integer size);
+
+    Map<BookingState, Long> getBookingCountsCurrentUser(Long userId);
+
+    Map<BookingState, Long> getBookingCountsForItemsCurrentUser(Long userId);
 }
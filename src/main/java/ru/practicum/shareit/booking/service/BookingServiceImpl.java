@@ -5,10 +5,15 @@ import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoMapper;
+import ru.practicum.shareit.booking.dto.BookingShortDto;
+import ru.practicum.shareit.booking.dto.BookingShortDtoMapper;
+import ru.practicum.shareit.booking.dto.BookingView;
 import ru.practicum.shareit.booking.dto.RequestBodyBookingDto;
 import ru.practicum.shareit.booking.dto.RequestBodyBookingDtoMapper;
 import ru.practicum.shareit.booking.model.Booking;
@@ -20,12 +25,16 @@ import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemDetailCache;
+import ru.practicum.shareit.pagination.KeysetCursor;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
 
 @Service
 @Slf4j
@@ -35,68 +44,84 @@ public class BookingServiceImpl implements BookingService {
     final BookingRepository bookingRepository;
     final ItemRepository itemRepository;
     final UserRepository userRepository;
+    final ItemDetailCache itemDetailCache;
+    final LastAndNextBookingRegistry lastAndNextBookingRegistry;
+    final BookingStateCounters bookingStateCounters;
     final BookingValidation bookingValidation = new BookingValidation();
+    final StripedItemLocks itemLocks = new StripedItemLocks(64);
+    final int approveAttempts = 3;
 
     @Autowired
     public BookingServiceImpl(BookingRepository bookingRepository,
                               UserRepository userRepository,
-                              ItemRepository itemRepository) {
+                              ItemRepository itemRepository,
+                              ItemDetailCache itemDetailCache,
+                              LastAndNextBookingRegistry lastAndNextBookingRegistry,
+                              BookingStateCounters bookingStateCounters) {
         this.bookingRepository = bookingRepository;
         this.userRepository = userRepository;
         this.itemRepository = itemRepository;
+        this.itemDetailCache = itemDetailCache;
+        this.lastAndNextBookingRegistry = lastAndNextBookingRegistry;
+        this.bookingStateCounters = bookingStateCounters;
     }
 
     @Override
     public BookingDto addNewBooking(RequestBodyBookingDto requestBooking, Long userId) {
         Item item = getItemById(requestBooking.getItemId());
         bookingValidation.bookingValidation(requestBooking, item, userId);
+        bookingValidation.bookingOverlapValidation(bookingRepository.isItemBookedBetween(item.getId(),
+                requestBooking.getStart(), requestBooking.getEnd(), BookingStatus.APPROVED));
         User user = getUserById(userId);
         Booking booking = RequestBodyBookingDtoMapper.mapRow(requestBooking);
         booking.setBooker(user);
         booking.setItem(item);
         booking.setStatus(BookingStatus.WAITING);
-        return bookingToBookingDto(bookingRepository.save(booking));
+        Booking savedBooking = bookingRepository.save(booking);
+        bookingStateCounters.onCreated(savedBooking);
+        return bookingToBookingDto(savedBooking);
     }
 
     @Override
     public BookingDto approveOrRejectBooking(Long userId, long bookingId, boolean approved) {
-        if (bookingRepository.findById(bookingId).isEmpty()) {
-            String message = String.format("%s %d %s", "Бронирование с id =", bookingId, "не найдено");
-            log.info(message);
-            throw new NotFoundException(message);
-        }
-        Booking booking = bookingRepository.findById(bookingId).get();
-        if (!userId.equals(booking.getItem().getOwner().getId())) {
-            String message = "Подтверждать или отклонять бронирование может только владелец вещи";
-            log.info(message);
-            throw new NotFoundException(message);
-        }
-        if (approved) {
-            if (booking.getStatus().equals(BookingStatus.APPROVED)) {
-                String message = "Бронирование уже было подтверждено";
+        long itemId = bookingRepository.findItemIdById(bookingId).orElseThrow(() -> bookingNotFound(bookingId));
+        Lock itemLock = itemLocks.get(itemId);
+        itemLock.lock();
+        try {
+            Booking booking = bookingRepository.findById(bookingId).orElseThrow(() -> bookingNotFound(bookingId));
+            if (!userId.equals(booking.getItem().getOwner().getId())) {
+                String message = "Подтверждать или отклонять бронирование может только владелец вещи";
                 log.info(message);
-                throw new IsAlreadyDoneException(message);
+                throw new NotFoundException(message);
             }
-            booking.setStatus(BookingStatus.APPROVED);
-        } else {
-            if (booking.getStatus().equals(BookingStatus.REJECTED)) {
-                String message = "Бронирование уже было отклонено";
-                log.info(message);
-                throw new IsAlreadyDoneException(message);
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    Booking savedBooking = bookingRepository.save(changeStatus(booking, approved));
+                    lastAndNextBookingRegistry.onStatusChanged(savedBooking);
+                    bookingStateCounters.onStatusChanged(savedBooking);
+                    itemDetailCache.invalidate(savedBooking.getItem().getId());
+                    return bookingToBookingDto(savedBooking);
+                } catch (OptimisticLockingFailureException e) {
+                    if (attempt == approveAttempts) {
+                        String message = "Бронирование было изменено другим запросом";
+                        log.info(message);
+                        throw new IsAlreadyDoneException(message);
+                    }
+                    booking = bookingRepository.findById(bookingId).orElseThrow(() -> e);
+                }
             }
-            booking.setStatus(BookingStatus.REJECTED);
+        } finally {
+            itemLock.unlock();
         }
-        return bookingToBookingDto(bookingRepository.save(booking));
     }
 
     @Override
     public BookingDto getBookingById(Long userId, long bookingId) {
-        if (bookingRepository.findById(bookingId).isEmpty()) {
+        Booking booking = bookingRepository.findById(bookingId).orElseThrow(() -> {
             String message = String.format("%s %d %s", "Бронирование с id =", bookingId, "не найдено");
             log.info(message);
-            throw new NotFoundException(message);
-        }
-        Booking booking = bookingRepository.findById(bookingId).get();
+            return new NotFoundException(message);
+        });
         if (!userId.equals(booking.getBooker().getId()) && !userId.equals(booking.getItem().getOwner().getId())) {
             String message = "Просматривать бронирование может либо автор бронирования либо владелец вещи";
             log.info(message);
@@ -106,47 +131,145 @@ public class BookingServiceImpl implements BookingService {
     }
 
     @Override
-    public List<BookingDto> getBookingCurrentUser(Long userId, String state, Integer from, Integer size) {
+    public List<BookingShortDto> getBookingCurrentUser(Long userId, String state, Integer from, Integer size) {
         checkFromAndSize(from, size);
-        LocalDateTime currentDate = LocalDateTime.now();
         User user = getUserById(userId);
-        switch (getBookingStateValue(state)) {
+        return findBookingsForUser(user, getBookingStateValue(state), null, PageRequest.of(from / size, size));
+    }
+
+    @Override
+    public List<BookingShortDto> getBookingCurrentUserAfter(Long userId, String state, String cursor, Integer size) {
+        checkFromAndSize(0, size);
+        User user = getUserById(userId);
+        return findBookingsForUser(user, getBookingStateValue(state), KeysetCursor.decode(cursor), PageRequest.of(0, size));
+    }
+
+    @Override
+    public List<BookingShortDto> getBookingForItemsCurrentUser(Long userId, String state, Integer from, Integer size) {
+        checkFromAndSize(from, size);
+        User owner = getUserById(userId);
+        return findBookingsForOwner(owner, getBookingStateValue(state), null, PageRequest.of(from / size, size));
+    }
+
+    @Override
+    public List<BookingShortDto> getBookingForItemsCurrentUserAfter(Long userId, String state, String cursor, Integer size) {
+        checkFromAndSize(0, size);
+        User owner = getUserById(userId);
+        return findBookingsForOwner(owner, getBookingStateValue(state), KeysetCursor.decode(cursor), PageRequest.of(0, size));
+    }
+
+    @Override
+    public Map<BookingState, Long> getBookingCountsCurrentUser(Long userId) {
+        User user = getUserById(userId);
+        return bookingStateCounters.countForUser(user, LocalDateTime.now());
+    }
+
+    @Override
+    public Map<BookingState, Long> getBookingCountsForItemsCurrentUser(Long userId) {
+        User owner = getUserById(userId);
+        return bookingStateCounters.countForOwner(owner, LocalDateTime.now());
+    }
+
+    /**
+     * Без курсора - страница по from/size, с курсором - следующая страница после позиции курсора.
+     */
+    private List<BookingShortDto> findBookingsForUser(User user, BookingState state, KeysetCursor cursor, Pageable pageable) {
+        LocalDateTime currentDate = LocalDateTime.now();
+        if (cursor == null) {
+            switch (state) {
+                case CURRENT:
+                    return bookingsToBookingsDto(bookingRepository.findCurrentBookingsForUser(user, currentDate, currentDate, pageable));
+                case PAST:
+                    return bookingsToBookingsDto(bookingRepository.findPastBookingsForUser(user, currentDate, pageable));
+                case FUTURE:
+                    return bookingsToBookingsDto(bookingRepository.findFutureBookingsForUser(user, currentDate, pageable));
+                case WAITING:
+                    return bookingsToBookingsDto(bookingRepository.findWaitingOrRejectedBookingsForUser(user, BookingStatus.WAITING, pageable));
+                case REJECTED:
+                    return bookingsToBookingsDto(bookingRepository.findWaitingOrRejectedBookingsForUser(user, BookingStatus.REJECTED, pageable));
+                default:
+                    return bookingsToBookingsDto(bookingRepository.findAllBookingsForUser(user, pageable));
+            }
+        }
+        LocalDateTime cursorStart = cursor.getDate();
+        long cursorId = cursor.getId();
+        switch (state) {
             case CURRENT:
-                return bookingsToBookingsDto(bookingRepository.findCurrentBookingsForUser(user, currentDate, currentDate, PageRequest.of(from / size, size)));
+                return bookingsToBookingsDto(bookingRepository.findCurrentBookingsForUserAfter(user, currentDate, currentDate, cursorStart, cursorId, pageable));
             case PAST:
-                return bookingsToBookingsDto(bookingRepository.findPastBookingsForUser(user, currentDate, PageRequest.of(from / size, size)));
+                return bookingsToBookingsDto(bookingRepository.findPastBookingsForUserAfter(user, currentDate, cursorStart, cursorId, pageable));
             case FUTURE:
-                return bookingsToBookingsDto(bookingRepository.findFutureBookingsForUser(user, currentDate, PageRequest.of(from / size, size)));
+                return bookingsToBookingsDto(bookingRepository.findFutureBookingsForUserAfter(user, currentDate, cursorStart, cursorId, pageable));
             case WAITING:
-                return bookingsToBookingsDto(bookingRepository.findWaitingOrRejectedBookingsForUser(user, BookingStatus.WAITING, PageRequest.of(from / size, size)));
+                return bookingsToBookingsDto(bookingRepository.findWaitingOrRejectedBookingsForUserAfter(user, BookingStatus.WAITING, cursorStart, cursorId, pageable));
             case REJECTED:
-                return bookingsToBookingsDto(bookingRepository.findWaitingOrRejectedBookingsForUser(user, BookingStatus.REJECTED, PageRequest.of(from / size, size)));
+                return bookingsToBookingsDto(bookingRepository.findWaitingOrRejectedBookingsForUserAfter(user, BookingStatus.REJECTED, cursorStart, cursorId, pageable));
             default:
-                return bookingsToBookingsDto(bookingRepository.findAllBookingsForUser(user, PageRequest.of(from / size, size)));
+                return bookingsToBookingsDto(bookingRepository.findAllBookingsForUserAfter(user, cursorStart, cursorId, pageable));
         }
     }
 
-    @Override
-    public List<BookingDto> getBookingForItemsCurrentUser(Long userId, String state, Integer from, Integer size) {
-        checkFromAndSize(from, size);
+    private List<BookingShortDto> findBookingsForOwner(User owner, BookingState state, KeysetCursor cursor, Pageable pageable) {
         LocalDateTime currentDate = LocalDateTime.now();
-        User user = getUserById(userId);
-        List<Item> items = itemRepository.findItemsForUser(user);
-
-        switch (getBookingStateValue(state)) {
+        if (cursor == null) {
+            switch (state) {
+                case CURRENT:
+                    return bookingsToBookingsDto(bookingRepository.findCurrentBookingsForOwner(owner, currentDate, currentDate, pageable));
+                case PAST:
+                    return bookingsToBookingsDto(bookingRepository.findPastBookingsForOwner(owner, currentDate, pageable));
+                case FUTURE:
+                    return bookingsToBookingsDto(bookingRepository.findFutureBookingsForOwner(owner, currentDate, pageable));
+                case WAITING:
+                    return bookingsToBookingsDto(bookingRepository.findWaitingOrRejectedBookingsForOwner(owner, BookingStatus.WAITING, pageable));
+                case REJECTED:
+                    return bookingsToBookingsDto(bookingRepository.findWaitingOrRejectedBookingsForOwner(owner, BookingStatus.REJECTED, pageable));
+                default:
+                    return bookingsToBookingsDto(bookingRepository.findAllBookingsForOwner(owner, pageable));
+            }
+        }
+        LocalDateTime cursorStart = cursor.getDate();
+        long cursorId = cursor.getId();
+        switch (state) {
             case CURRENT:
-                return bookingsToBookingsDto(bookingRepository.findCurrentBookingsForItems(items, currentDate, currentDate, PageRequest.of(from / size, size)));
+                return bookingsToBookingsDto(bookingRepository.findCurrentBookingsForOwnerAfter(owner, currentDate, currentDate, cursorStart, cursorId, pageable));
             case PAST:
-                return bookingsToBookingsDto(bookingRepository.findPastBookingsForItems(items, currentDate, PageRequest.of(from / size, size)));
+                return bookingsToBookingsDto(bookingRepository.findPastBookingsForOwnerAfter(owner, currentDate, cursorStart, cursorId, pageable));
             case FUTURE:
-                return bookingsToBookingsDto(bookingRepository.findFutureBookingsForItems(items, currentDate, PageRequest.of(from / size, size)));
+                return bookingsToBookingsDto(bookingRepository.findFutureBookingsForOwnerAfter(owner, currentDate, cursorStart, cursorId, pageable));
             case WAITING:
-                return bookingsToBookingsDto(bookingRepository.findWaitingOrRejectedBookingsForItems(items, BookingStatus.WAITING, PageRequest.of(from / size, size)));
+                return bookingsToBookingsDto(bookingRepository.findWaitingOrRejectedBookingsForOwnerAfter(owner, BookingStatus.WAITING, cursorStart, cursorId, pageable));
             case REJECTED:
-                return bookingsToBookingsDto(bookingRepository.findWaitingOrRejectedBookingsForItems(items, BookingStatus.REJECTED, PageRequest.of(from / size, size)));
+                return bookingsToBookingsDto(bookingRepository.findWaitingOrRejectedBookingsForOwnerAfter(owner, BookingStatus.REJECTED, cursorStart, cursorId, pageable));
             default:
-                return bookingsToBookingsDto(bookingRepository.findAllBookingsForItems(items, PageRequest.of(from / size, size)));
+                return bookingsToBookingsDto(bookingRepository.findAllBookingsForOwnerAfter(owner, cursorStart, cursorId, pageable));
+        }
+    }
+
+    private NotFoundException bookingNotFound(long bookingId) {
+        String message = String.format("%s %d %s", "Бронирование с id =", bookingId, "не найдено");
+        log.info(message);
+        return new NotFoundException(message);
+    }
+
+    private Booking changeStatus(Booking booking, boolean approved) {
+        if (approved) {
+            if (booking.getStatus().equals(BookingStatus.APPROVED)) {
+                String message = "Бронирование уже было подтверждено";
+                log.info(message);
+                throw new IsAlreadyDoneException(message);
+            }
+            bookingValidation.bookingOverlapValidation(bookingRepository.isItemBookedBetween(booking.getItem().getId(),
+                    booking.getStart(), booking.getEnd(), BookingStatus.APPROVED));
+            booking.setStatus(BookingStatus.APPROVED);
+        } else {
+            if (booking.getStatus().equals(BookingStatus.REJECTED)) {
+                String message = "Бронирование уже было отклонено";
+                log.info(message);
+                throw new IsAlreadyDoneException(message);
+            }
+            booking.setStatus(BookingStatus.REJECTED);
         }
+        return booking;
     }
 
     private BookingState getBookingStateValue(String state) {
@@ -160,27 +283,25 @@ public class BookingServiceImpl implements BookingService {
     }
 
     private Item getItemById(long itemId) {
-        if (itemRepository.findById(itemId).isEmpty()) {
+        return itemRepository.findById(itemId).orElseThrow(() -> {
             String message = String.format("%s %d %s", "Вещь с id =", itemId, "не найдена");
             log.info(message);
-            throw new NotFoundException(message);
-        }
-        return itemRepository.findById(itemId).get();
+            return new NotFoundException(message);
+        });
     }
 
     private User getUserById(long userId) {
-        if (userRepository.findById(userId).isEmpty()) {
+        return userRepository.findById(userId).orElseThrow(() -> {
             String message = String.format("%s %d %s", "Пользователь с id =", userId, "не найден");
             log.info(message);
-            throw new NotFoundException(message);
-        }
-        return userRepository.findById(userId).get();
+            return new NotFoundException(message);
+        });
     }
 
-    private List<BookingDto> bookingsToBookingsDto(List<Booking> bookings) {
-        List<BookingDto> bookingsDto = new ArrayList<>();
-        for (Booking booking : bookings) {
-            bookingsDto.add(bookingToBookingDto(booking));
+    private List<BookingShortDto> bookingsToBookingsDto(List<BookingView> bookings) {
+        List<BookingShortDto> bookingsDto = new ArrayList<>();
+        for (BookingView booking : bookings) {
+            bookingsDto.add(BookingShortDtoMapper.mapRow(booking));
         }
         return bookingsDto;
     }
@@ -0,0 +1,166 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.dto.BookingPeriodCountView;
+import ru.practicum.shareit.booking.dto.BookingStatusCountView;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * Количество бронирований автора и владельца по состояниям.
+ */
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class BookingStateCounters {
+    final BookingRepository bookingRepository;
+    final Map<Long, Counters> bookers;
+    final Map<Long, Counters> owners;
+    long generation;
+
+    @Autowired
+    public BookingStateCounters(BookingRepository bookingRepository,
+                                @Value("${shareit.bookings.counts.max-size:10000}") int maxSize) {
+        this.bookingRepository = bookingRepository;
+        this.bookers = lruMap(maxSize);
+        this.owners = lruMap(maxSize);
+    }
+
+    public Map<BookingState, Long> countForUser(User booker, LocalDateTime currentDate) {
+        return count(bookers, booker.getId(), currentDate,
+                () -> new Counters(bookingRepository.countBookingStatusesForUser(booker),
+                        bookingRepository.countUnfinishedBookingPeriodsForUser(booker, currentDate)));
+    }
+
+    public Map<BookingState, Long> countForOwner(User owner, LocalDateTime currentDate) {
+        return count(owners, owner.getId(), currentDate,
+                () -> new Counters(bookingRepository.countBookingStatusesForOwner(owner),
+                        bookingRepository.countUnfinishedBookingPeriodsForOwner(owner, currentDate)));
+    }
+
+    public synchronized void onCreated(Booking booking) {
+        invalidate(booking);
+    }
+
+    public synchronized void onStatusChanged(Booking booking) {
+        invalidate(booking);
+    }
+
+    public synchronized void clear() {
+        generation++;
+        bookers.clear();
+        owners.clear();
+    }
+
+    private Map<BookingState, Long> count(Map<Long, Counters> cache, long userId, LocalDateTime currentDate,
+                                          Supplier<Counters> loader) {
+        long loadedGeneration;
+        synchronized (this) {
+            Counters counters = cache.get(userId);
+            if (counters != null) {
+                return counters.count(currentDate);
+            }
+            loadedGeneration = generation;
+        }
+        Counters counters = loader.get();
+        synchronized (this) {
+            if (loadedGeneration == generation) {
+                cache.put(userId, counters);
+            }
+            return counters.count(currentDate);
+        }
+    }
+
+    private void invalidate(Booking booking) {
+        generation++;
+        bookers.remove(booking.getBooker().getId());
+        owners.remove(booking.getItem().getOwner().getId());
+    }
+
+    private static Map<Long, Counters> lruMap(int maxSize) {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Counters> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    private static class Counters {
+        Map<BookingStatus, Long> byStatus = new EnumMap<>(BookingStatus.class);
+        TimeBuckets starts = new TimeBuckets();
+        TimeBuckets ends = new TimeBuckets();
+        long all;
+
+        Counters(List<BookingStatusCountView> statusCounts, List<BookingPeriodCountView> unfinishedPeriods) {
+            long all = 0;
+            for (BookingStatusCountView statusCount : statusCounts) {
+                byStatus.put(statusCount.getStatus(), statusCount.getCount());
+                all += statusCount.getCount();
+            }
+            this.all = all;
+            long finished = all;
+            for (BookingPeriodCountView period : unfinishedPeriods) {
+                starts.add(period.getStartDate(), period.getCount());
+                ends.add(period.getEndDate(), period.getCount());
+                finished -= period.getCount();
+            }
+            starts.before = finished;
+            ends.before = finished;
+        }
+
+        Map<BookingState, Long> count(LocalDateTime currentDate) {
+            starts.advance(currentDate);
+            ends.advance(currentDate);
+            Map<BookingState, Long> counts = new EnumMap<>(BookingState.class);
+            counts.put(BookingState.ALL, all);
+            counts.put(BookingState.CURRENT, starts.before - ends.before - ends.at(currentDate));
+            counts.put(BookingState.PAST, ends.before);
+            counts.put(BookingState.FUTURE, all - starts.before - starts.at(currentDate));
+            counts.put(BookingState.WAITING, byStatus.getOrDefault(BookingStatus.WAITING, 0L));
+            counts.put(BookingState.REJECTED, byStatus.getOrDefault(BookingStatus.REJECTED, 0L));
+            return counts;
+        }
+    }
+
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    private static class TimeBuckets {
+        final NavigableMap<LocalDateTime, Long> pending = new TreeMap<>();
+        LocalDateTime sweptUntil = LocalDateTime.MIN;
+        long before;
+
+        void add(LocalDateTime date, long count) {
+            if (date.isBefore(sweptUntil)) {
+                before += count;
+            } else {
+                pending.merge(date, count, Long::sum);
+            }
+        }
+
+        void advance(LocalDateTime currentDate) {
+            if (!currentDate.isAfter(sweptUntil)) {
+                return;
+            }
+            NavigableMap<LocalDateTime, Long> passed = pending.headMap(currentDate, false);
+            for (long count : passed.values()) {
+                before += count;
+            }
+            passed.clear();
+            sweptUntil = currentDate;
+        }
+
+        long at(LocalDateTime date) {
+            return pending.getOrDefault(date, 0L);
+        }
+    }
+}
@@ -16,6 +16,12 @@ public class BookingValidation {
         bookerIsNotOwnerValidation(userId, item);
     }
 
+    public void bookingOverlapValidation(boolean isItemBooked) {
+        if (isItemBooked) {
+            throw new ValidationException("Вещь уже забронирована на указанные даты");
+        }
+    }
+
     private void itemAvailableValidation(Item item) {
         if (!item.getAvailable()) {
             throw new ValidationException("Вещь недопустима для бронирования");
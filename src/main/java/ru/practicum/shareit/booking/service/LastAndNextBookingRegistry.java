@@ -0,0 +1,235 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.dto.ItemBookingView;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Последнее и следующее подтверждённое бронирование для недавно запрошенных вещей.
+ */
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class LastAndNextBookingRegistry {
+    final BookingRepository bookingRepository;
+    final Map<Long, ItemBookings> items;
+    final NavigableMap<LocalDateTime, Set<Long>> timerWheel = new TreeMap<>();
+    long generation;
+
+    @Autowired
+    public LastAndNextBookingRegistry(BookingRepository bookingRepository,
+                                      @Value("${shareit.bookings.registry.max-size:10000}") int maxSize) {
+        this.bookingRepository = bookingRepository;
+        this.items = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, ItemBookings> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    public Map<Long, ItemBookingView> findLastBookings(Collection<Long> itemIds, LocalDateTime currentDate) {
+        return find(itemIds, currentDate, itemBookings -> itemBookings.last);
+    }
+
+    public Map<Long, ItemBookingView> findNextBookings(Collection<Long> itemIds, LocalDateTime currentDate) {
+        return find(itemIds, currentDate, itemBookings -> itemBookings.next != null
+                && itemBookings.next.startDate.isAfter(currentDate) ? itemBookings.next : null);
+    }
+
+    public synchronized void onStatusChanged(Booking booking) {
+        generation++;
+        long itemId = booking.getItem().getId();
+        ItemBookings itemBookings = items.get(itemId);
+        if (itemBookings == null) {
+            return;
+        }
+        if (booking.getStatus() != BookingStatus.APPROVED) {
+            items.remove(itemId);
+            return;
+        }
+        BookingPointer pointer = new BookingPointer(itemId, booking.getId(), booking.getBooker().getId(),
+                booking.getStart());
+        if (pointer.startDate.isBefore(LocalDateTime.now())) {
+            itemBookings.moveToLast(pointer);
+        } else if (itemBookings.nextLoaded && (itemBookings.next == null || pointer.isBefore(itemBookings.next))) {
+            itemBookings.next = pointer;
+            schedule(pointer);
+        }
+    }
+
+    public synchronized void clear() {
+        generation++;
+        items.clear();
+        timerWheel.clear();
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.bookings.timer-wheel.tick-ms:1000}")
+    public synchronized void tick() {
+        advance(LocalDateTime.now());
+    }
+
+    synchronized void advance(LocalDateTime currentDate) {
+        NavigableMap<LocalDateTime, Set<Long>> started = timerWheel.headMap(currentDate, false);
+        for (Set<Long> itemIds : started.values()) {
+            for (Long itemId : itemIds) {
+                ItemBookings itemBookings = items.get(itemId);
+                if (itemBookings != null) {
+                    itemBookings.advance(currentDate);
+                }
+            }
+        }
+        started.clear();
+    }
+
+    private Map<Long, ItemBookingView> find(Collection<Long> itemIds, LocalDateTime currentDate,
+                                            Function<ItemBookings, BookingPointer> pointer) {
+        List<Long> missingItemIds = new ArrayList<>();
+        List<Long> staleItemIds = new ArrayList<>();
+        long loadedGeneration;
+        synchronized (this) {
+            advance(currentDate);
+            for (Long itemId : itemIds) {
+                ItemBookings itemBookings = items.get(itemId);
+                if (itemBookings == null) {
+                    missingItemIds.add(itemId);
+                } else if (!itemBookings.nextLoaded) {
+                    staleItemIds.add(itemId);
+                }
+            }
+            if (missingItemIds.isEmpty() && staleItemIds.isEmpty()) {
+                return collect(itemIds, items, pointer);
+            }
+            loadedGeneration = generation;
+        }
+        Map<Long, BookingPointer> lastBookings = new HashMap<>();
+        if (!missingItemIds.isEmpty()) {
+            for (ItemBookingView booking : bookingRepository.findLastBookings(missingItemIds, currentDate,
+                    BookingStatus.APPROVED)) {
+                lastBookings.putIfAbsent(booking.getItemId(), BookingPointer.of(booking));
+            }
+        }
+        List<Long> nextItemIds = new ArrayList<>(missingItemIds);
+        nextItemIds.addAll(staleItemIds);
+        Map<Long, BookingPointer> nextBookings = new HashMap<>();
+        for (ItemBookingView booking : bookingRepository.findNextBookings(nextItemIds, currentDate,
+                BookingStatus.APPROVED)) {
+            nextBookings.putIfAbsent(booking.getItemId(), BookingPointer.of(booking));
+        }
+        synchronized (this) {
+            Map<Long, ItemBookings> loaded = new HashMap<>();
+            for (Long itemId : itemIds) {
+                ItemBookings itemBookings = items.get(itemId);
+                if (itemBookings != null && itemBookings.nextLoaded) {
+                    loaded.put(itemId, itemBookings);
+                    continue;
+                }
+                ItemBookings loadedBookings = new ItemBookings();
+                loadedBookings.last = itemBookings != null ? itemBookings.last : lastBookings.get(itemId);
+                loadedBookings.next = nextBookings.get(itemId);
+                loadedBookings.nextLoaded = true;
+                loaded.put(itemId, loadedBookings);
+                if (loadedGeneration == generation) {
+                    items.put(itemId, loadedBookings);
+                    if (loadedBookings.next != null) {
+                        schedule(loadedBookings.next);
+                    }
+                }
+            }
+            return collect(itemIds, loaded, pointer);
+        }
+    }
+
+    private Map<Long, ItemBookingView> collect(Collection<Long> itemIds, Map<Long, ItemBookings> source,
+                                               Function<ItemBookings, BookingPointer> pointer) {
+        Map<Long, ItemBookingView> bookings = new HashMap<>();
+        for (Long itemId : itemIds) {
+            ItemBookings itemBookings = source.get(itemId);
+            BookingPointer booking = itemBookings == null ? null : pointer.apply(itemBookings);
+            if (booking != null) {
+                bookings.put(itemId, booking);
+            }
+        }
+        return bookings;
+    }
+
+    private void schedule(BookingPointer booking) {
+        timerWheel.computeIfAbsent(booking.startDate, start -> new HashSet<>()).add(booking.itemId);
+    }
+
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    private static class ItemBookings {
+        BookingPointer last;
+        BookingPointer next;
+        boolean nextLoaded;
+
+        void advance(LocalDateTime currentDate) {
+            if (next != null && next.startDate.isBefore(currentDate)) {
+                moveToLast(next);
+                next = null;
+                nextLoaded = false;
+            }
+        }
+
+        void moveToLast(BookingPointer booking) {
+            if (last == null || booking.startDate.isAfter(last.startDate)
+                    || booking.startDate.equals(last.startDate) && booking.id < last.id) {
+                last = booking;
+            }
+        }
+    }
+
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    private static class BookingPointer implements ItemBookingView {
+        long itemId;
+        long id;
+        long bookerId;
+        LocalDateTime startDate;
+
+        BookingPointer(long itemId, long id, long bookerId, LocalDateTime startDate) {
+            this.itemId = itemId;
+            this.id = id;
+            this.bookerId = bookerId;
+            this.startDate = startDate;
+        }
+
+        static BookingPointer of(ItemBookingView booking) {
+            return new BookingPointer(booking.getItemId(), booking.getId(), booking.getBookerId(),
+                    booking.getStartDate());
+        }
+
+        boolean isBefore(BookingPointer other) {
+            return startDate.isBefore(other.startDate) || startDate.equals(other.startDate) && id < other.id;
+        }
+
+        @Override
+        public Long getItemId() {
+            return itemId;
+        }
+
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public Long getBookerId() {
+            return bookerId;
+        }
+
+        @Override
+        public LocalDateTime getStartDate() {
+            return startDate;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Фиксированный набор блокировок, между которыми распределяются вещи по id.
+ * Операции над бронированиями одной вещи выполняются последовательно,
+ * операции над разными вещами почти никогда не ждут друг друга.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class StripedItemLocks {
+    final Lock[] locks;
+
+    public StripedItemLocks(int stripes) {
+        locks = new Lock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    public Lock get(long itemId) {
+        return locks[Math.floorMod(itemId, locks.length)];
+    }
+}
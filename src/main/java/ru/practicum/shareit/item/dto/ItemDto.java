@@ -9,7 +9,7 @@ import ru.practicum.shareit.booking.dto.LastAndNextBookingDto;
 import java.util.List;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class ItemDto {
     long id;
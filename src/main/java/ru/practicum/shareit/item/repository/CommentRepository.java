@@ -3,11 +3,11 @@ package ru.practicum.shareit.item.repository;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.item.model.Comment;
-import ru.practicum.shareit.item.model.Item;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
-    @Query(value = "select c from Comment c where c.item = :item")
-    List<Comment> findCommentsByItem(Item item);
+    @Query(value = "select c from Comment c join fetch c.author join fetch c.item where c.item.id in :itemIds order by c.id asc")
+    List<Comment> findCommentsByItemIds(Collection<Long> itemIds);
 }
@@ -0,0 +1,113 @@
+package ru.practicum.shareit.item.search;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+/**
+ * Кэш страниц результатов поиска вещей.
+ */
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ItemSearchCache {
+    final Map<Key, Entry> entries;
+    final long ttlNanos;
+    final LongSupplier ticker;
+    final Counter hits;
+    final Counter misses;
+
+    @Autowired
+    public ItemSearchCache(MeterRegistry meterRegistry,
+                           @Value("${shareit.search.cache.max-size:1000}") int maxSize,
+                           @Value("${shareit.search.cache.ttl-seconds:60}") long ttlSeconds) {
+        this(meterRegistry, maxSize, ttlSeconds, System::nanoTime);
+    }
+
+    ItemSearchCache(MeterRegistry meterRegistry, int maxSize, long ttlSeconds, LongSupplier ticker) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > maxSize;
+            }
+        };
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.ticker = ticker;
+        this.hits = meterRegistry.counter("shareit.items.search.cache", "result", "hit");
+        this.misses = meterRegistry.counter("shareit.items.search.cache", "result", "miss");
+        Gauge.builder("shareit.items.search.cache.size", this, ItemSearchCache::size).register(meterRegistry);
+    }
+
+    public synchronized List<Long> get(String query, int offset, int size) {
+        Key key = new Key(query, offset, size);
+        Entry entry = entries.get(key);
+        if (entry == null || ticker.getAsLong() - entry.createdAt > ttlNanos) {
+            if (entry != null) {
+                entries.remove(key);
+            }
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.itemIds;
+    }
+
+    public synchronized void put(String query, int offset, int size, List<Long> itemIds) {
+        entries.put(new Key(query, offset, size), new Entry(List.copyOf(itemIds), ticker.getAsLong()));
+    }
+
+    public synchronized void invalidate(Predicate<String> affectedQuery) {
+        Iterator<Key> keys = entries.keySet().iterator();
+        while (keys.hasNext()) {
+            if (affectedQuery.test(keys.next().query)) {
+                keys.remove();
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    @EqualsAndHashCode
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    private static class Key {
+        String query;
+        int offset;
+        int size;
+
+        Key(String query, int offset, int size) {
+            this.query = query;
+            this.offset = offset;
+            this.size = size;
+        }
+    }
+
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    private static class Entry {
+        List<Long> itemIds;
+        long createdAt;
+
+        Entry(List<Long> itemIds, long createdAt) {
+            this.itemIds = itemIds;
+            this.createdAt = createdAt;
+        }
+    }
+}
@@ -0,0 +1,304 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Триграммный индекс доступных вещей для поиска по подстроке в названии или описании.
+ */
+@Slf4j
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ItemSearchIndex {
+    static final int REBUILD_BATCH_SIZE = 1000;
+    static final int GRAM_SIZE = 3;
+
+    final ItemRepository itemRepository;
+    final ItemSearchCache itemSearchCache;
+    final Map<Long, IndexedItem> items = new HashMap<>();
+    final NavigableMap<String, long[]> gramPostings = new TreeMap<>();
+    final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Autowired
+    public ItemSearchIndex(ItemRepository itemRepository, ItemSearchCache itemSearchCache) {
+        this.itemRepository = itemRepository;
+        this.itemSearchCache = itemSearchCache;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            items.clear();
+            gramPostings.clear();
+            itemSearchCache.clear();
+            Page<Item> page = itemRepository.findAvailableItems(PageRequest.of(0, REBUILD_BATCH_SIZE, Sort.by("id")));
+            page.forEach(this::put);
+            while (page.hasNext()) {
+                page = itemRepository.findAvailableItems(page.nextPageable());
+                page.forEach(this::put);
+            }
+            log.info(String.format("%s %d", "Поисковый индекс вещей построен, вещей:", items.size()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void index(Item item) {
+        lock.writeLock().lock();
+        try {
+            put(item);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long itemId) {
+        lock.writeLock().lock();
+        try {
+            delete(itemId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<Long> search(String text, int from, int size) {
+        String query = normalize(text);
+        int offset = from / size * size;
+        lock.readLock().lock();
+        try {
+            List<Long> cached = itemSearchCache.get(query, offset, size);
+            if (cached != null) {
+                return cached;
+            }
+            List<Long> result = find(query, offset, size);
+            itemSearchCache.put(query, offset, size, result);
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean letterOrDigit = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (letterOrDigit && start < 0) {
+                start = i;
+            } else if (!letterOrDigit && start >= 0) {
+                tokens.add(text.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    static Set<String> grams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_SIZE <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM_SIZE));
+        }
+        for (int i = Math.max(0, text.length() - GRAM_SIZE + 1); i < text.length(); i++) {
+            grams.add(text.substring(i));
+        }
+        return grams;
+    }
+
+    private List<Long> find(String query, int offset, int size) {
+        List<ScoredItem> found = new ArrayList<>();
+        for (long itemId : candidates(query)) {
+            IndexedItem item = items.get(itemId);
+            if (item.matches(query)) {
+                found.add(new ScoredItem(itemId, item.score(query)));
+            }
+        }
+        found.sort(Comparator.comparingInt((ScoredItem scoredItem) -> -scoredItem.score)
+                .thenComparingLong(scoredItem -> scoredItem.id));
+        List<Long> result = new ArrayList<>();
+        for (int i = offset; i < found.size() && result.size() < size; i++) {
+            result.add(found.get(i).id);
+        }
+        return result;
+    }
+
+    private long[] candidates(String query) {
+        if (query.isEmpty()) {
+            return items.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+        }
+        if (query.length() < GRAM_SIZE) {
+            return prefixCandidates(query);
+        }
+        List<long[]> lists = new ArrayList<>();
+        for (String gram : grams(query)) {
+            if (gram.length() < GRAM_SIZE) {
+                continue;
+            }
+            long[] itemIds = gramPostings.get(gram);
+            if (itemIds == null) {
+                return new long[0];
+            }
+            lists.add(itemIds);
+        }
+        lists.sort(Comparator.comparingInt(itemIds -> itemIds.length));
+        long[] candidates = lists.get(0);
+        for (int i = 1; i < lists.size() && candidates.length > 0; i++) {
+            candidates = intersect(candidates, lists.get(i));
+        }
+        return candidates;
+    }
+
+    private long[] prefixCandidates(String query) {
+        Collection<long[]> lists = gramPostings.subMap(query, true, query + Character.MAX_VALUE, false).values();
+        int total = 0;
+        for (long[] itemIds : lists) {
+            total += itemIds.length;
+        }
+        long[] candidates = new long[total];
+        int length = 0;
+        for (long[] itemIds : lists) {
+            System.arraycopy(itemIds, 0, candidates, length, itemIds.length);
+            length += itemIds.length;
+        }
+        return Arrays.stream(candidates).sorted().distinct().toArray();
+    }
+
+    static long[] intersect(long[] first, long[] second) {
+        long[] result = new long[Math.min(first.length, second.length)];
+        int length = 0;
+        int i = 0;
+        int j = 0;
+        while (i < first.length && j < second.length) {
+            if (first[i] < second[j]) {
+                i++;
+            } else if (first[i] > second[j]) {
+                j++;
+            } else {
+                result[length++] = first[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, length);
+    }
+
+    static long[] withId(long[] itemIds, long itemId) {
+        int index = Arrays.binarySearch(itemIds, itemId);
+        if (index >= 0) {
+            return itemIds;
+        }
+        int position = -index - 1;
+        long[] result = new long[itemIds.length + 1];
+        System.arraycopy(itemIds, 0, result, 0, position);
+        result[position] = itemId;
+        System.arraycopy(itemIds, position, result, position + 1, itemIds.length - position);
+        return result;
+    }
+
+    static long[] withoutId(long[] itemIds, long itemId) {
+        int index = Arrays.binarySearch(itemIds, itemId);
+        if (index < 0) {
+            return itemIds;
+        }
+        long[] result = new long[itemIds.length - 1];
+        System.arraycopy(itemIds, 0, result, 0, index);
+        System.arraycopy(itemIds, index + 1, result, index, itemIds.length - index - 1);
+        return result;
+    }
+
+    private void put(Item item) {
+        delete(item.getId());
+        if (!Boolean.TRUE.equals(item.getAvailable())) {
+            return;
+        }
+        IndexedItem indexedItem = new IndexedItem(normalize(item.getName()), normalize(item.getDescription()));
+        itemSearchCache.invalidate(indexedItem::matches);
+        items.put(item.getId(), indexedItem);
+        for (String gram : indexedItem.grams()) {
+            gramPostings.merge(gram, new long[]{item.getId()}, (itemIds, added) -> withId(itemIds, added[0]));
+        }
+    }
+
+    private void delete(long itemId) {
+        IndexedItem indexedItem = items.remove(itemId);
+        if (indexedItem == null) {
+            return;
+        }
+        itemSearchCache.invalidate(indexedItem::matches);
+        for (String gram : indexedItem.grams()) {
+            long[] itemIds = withoutId(gramPostings.get(gram), itemId);
+            if (itemIds.length == 0) {
+                gramPostings.remove(gram);
+            } else {
+                gramPostings.put(gram, itemIds);
+            }
+        }
+    }
+
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    private static class IndexedItem {
+        String name;
+        String description;
+
+        IndexedItem(String name, String description) {
+            this.name = name;
+            this.description = description;
+        }
+
+        Set<String> tokens() {
+            Set<String> tokens = new HashSet<>(tokenize(name));
+            tokens.addAll(tokenize(description));
+            return tokens;
+        }
+
+        Set<String> grams() {
+            Set<String> grams = ItemSearchIndex.grams(name);
+            grams.addAll(ItemSearchIndex.grams(description));
+            return grams;
+        }
+
+        boolean matches(String query) {
+            return name.contains(query) || description.contains(query);
+        }
+
+        int score(String query) {
+            int score = 0;
+            if (name.contains(query)) {
+                score += 2;
+            }
+            if (tokens().contains(query)) {
+                score += 1;
+            }
+            return score;
+        }
+    }
+
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    private static class ScoredItem {
+        long id;
+        int score;
+
+        ScoredItem(long id, int score) {
+            this.id = id;
+            this.score = score;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package ru.practicum.shareit.item.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Кэш собранных карточек вещей.
+ */
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ItemDetailCache {
+    final Map<Long, Entry> entries;
+    final Counter hits;
+    final Counter misses;
+    long generation;
+
+    @Autowired
+    public ItemDetailCache(MeterRegistry meterRegistry,
+                           @Value("${shareit.items.cache.max-size:10000}") int maxSize) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                return size() > maxSize;
+            }
+        };
+        this.hits = meterRegistry.counter("shareit.items.detail.cache", "result", "hit");
+        this.misses = meterRegistry.counter("shareit.items.detail.cache", "result", "miss");
+        Gauge.builder("shareit.items.detail.cache.size", this, ItemDetailCache::size).register(meterRegistry);
+    }
+
+    public synchronized ItemDto get(long itemId, Long userId, LocalDateTime currentDate) {
+        Entry entry = entries.get(itemId);
+        if (entry == null || (entry.validUntil != null && !currentDate.isBefore(entry.validUntil))) {
+            if (entry != null) {
+                entries.remove(itemId);
+            }
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return viewFor(entry.itemDto, entry.ownerId, userId);
+    }
+
+    public synchronized long generation() {
+        return generation;
+    }
+
+    public synchronized void put(long itemId, long ownerId, ItemDto itemDto, LocalDateTime validUntil,
+                                 long generation) {
+        if (generation != this.generation) {
+            return;
+        }
+        entries.put(itemId, new Entry(viewFor(itemDto, ownerId, ownerId), ownerId, validUntil));
+    }
+
+    public synchronized void invalidate(long itemId) {
+        generation++;
+        entries.remove(itemId);
+    }
+
+    public synchronized void clear() {
+        generation++;
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public static ItemDto viewFor(ItemDto itemDto, long ownerId, Long userId) {
+        boolean owner = userId != null && userId == ownerId;
+        return itemDto.toBuilder()
+                .lastBooking(owner ? itemDto.getLastBooking() : null)
+                .nextBooking(owner ? itemDto.getNextBooking() : null)
+                .comments(itemDto.getComments() == null ? null : List.copyOf(itemDto.getComments()))
+                .build();
+    }
+
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    private static class Entry {
+        ItemDto itemDto;
+        long ownerId;
+        LocalDateTime validUntil;
+
+        Entry(ItemDto itemDto, long ownerId, LocalDateTime validUntil) {
+            this.itemDto = itemDto;
+            this.ownerId = ownerId;
+            this.validUntil = validUntil;
+        }
+    }
+}
@@ -7,9 +7,11 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import ru.practicum.shareit.booking.dto.ItemBookingView;
 import ru.practicum.shareit.booking.dto.LastAndNextBookingDtoMapper;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.LastAndNextBookingRegistry;
 import ru.practicum.shareit.exception.ForbiddenException;
 import ru.practicum.shareit.exception.InternalServerException;
 import ru.practicum.shareit.exception.NotFoundException;
@@ -19,14 +21,21 @@ import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
 import ru.practicum.shareit.item_request.model.ItemRequest;
 import ru.practicum.shareit.item_request.repository.ItemRequestRepository;
+import ru.practicum.shareit.item_request.service.ItemRequestFeed;
+import ru.practicum.shareit.item_request.service.ItemRequestMatcher;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Slf4j
 @Service
@@ -38,6 +47,11 @@ public class ItemServiceImpl implements ItemService {
     final BookingRepository bookingRepository;
     final CommentRepository commentRepository;
     final ItemRequestRepository itemRequestRepository;
+    final ItemSearchIndex itemSearchIndex;
+    final ItemDetailCache itemDetailCache;
+    final LastAndNextBookingRegistry lastAndNextBookingRegistry;
+    final ItemRequestFeed itemRequestFeed;
+    final ItemRequestMatcher itemRequestMatcher;
     final ItemValidation itemValidation = new ItemValidation();
     final CommentValidation commentValidation = new CommentValidation();
 
@@ -46,12 +60,22 @@ public class ItemServiceImpl implements ItemService {
                            UserRepository userRepository,
                            BookingRepository bookingRepository,
                            CommentRepository commentRepository,
-                           ItemRequestRepository itemRequestRepository) {
+                           ItemRequestRepository itemRequestRepository,
+                           ItemSearchIndex itemSearchIndex,
+                           ItemDetailCache itemDetailCache,
+                           LastAndNextBookingRegistry lastAndNextBookingRegistry,
+                           ItemRequestFeed itemRequestFeed,
+                           ItemRequestMatcher itemRequestMatcher) {
         this.itemRepository = itemRepository;
         this.userRepository = userRepository;
         this.bookingRepository = bookingRepository;
         this.commentRepository = commentRepository;
         this.itemRequestRepository = itemRequestRepository;
+        this.itemSearchIndex = itemSearchIndex;
+        this.itemDetailCache = itemDetailCache;
+        this.lastAndNextBookingRegistry = lastAndNextBookingRegistry;
+        this.itemRequestFeed = itemRequestFeed;
+        this.itemRequestMatcher = itemRequestMatcher;
     }
 
     @Override
@@ -66,6 +90,9 @@ public class ItemServiceImpl implements ItemService {
         }
         item.setOwner(owner);
         Item savedItem = itemRepository.save(item);
+        itemSearchIndex.index(savedItem);
+        itemRequestFeed.onItemSaved(savedItem);
+        itemRequestMatcher.onItemCreated(savedItem);
         return itemToItemDto(savedItem, userId);
     }
 
@@ -73,19 +100,17 @@ public class ItemServiceImpl implements ItemService {
     public CommentDto addNewComment(Comment comment, Long userId, long itemId) {
         commentValidation.commentValidation(comment);
         LocalDateTime currentDate = LocalDateTime.now();
-        if (itemRepository.findById(itemId).isEmpty()) {
+        Item item = itemRepository.findById(itemId).orElseThrow(() -> {
             String message = String.format("%s %d %s", "Вещь с id =", itemId, "не найдена");
             log.info(message);
-            throw new NotFoundException(message);
-        }
-        Item item = itemRepository.findById(itemId).get();
-        if (userRepository.findById(userId).isEmpty()) {
+            return new NotFoundException(message);
+        });
+        User user = userRepository.findById(userId).orElseThrow(() -> {
             String message = String.format("%s %d %s", "Пользователь с id =", userId, "не найден");
             log.info(message);
-            throw new NotFoundException(message);
-        }
-        User user = userRepository.findById(userId).get();
-        if (bookingRepository.findPastBookingsForUserAndItem(item, user, BookingStatus.APPROVED, currentDate).isEmpty()) {
+            return new NotFoundException(message);
+        });
+        if (!bookingRepository.existsByItemIdAndBookerIdAndStatusAndEndBefore(itemId, userId, BookingStatus.APPROVED, currentDate)) {
             String message = String.format("%s %d %s %d", "У пользователя с id =", userId, "нет бронирований для вещи с id=", itemId);
             log.info(message);
             throw new ValidationException(message);
@@ -93,7 +118,9 @@ public class ItemServiceImpl implements ItemService {
         comment.setItem(item);
         comment.setCreateDate(currentDate);
         comment.setAuthor(user);
-        return CommentDtoMapper.mapRow(commentRepository.save(comment));
+        CommentDto commentDto = CommentDtoMapper.mapRow(commentRepository.save(comment));
+        itemDetailCache.invalidate(itemId);
+        return commentDto;
     }
 
     @Override
@@ -104,10 +131,15 @@ public class ItemServiceImpl implements ItemService {
             ItemRequest itemRequest = getRequestById(requestBodyItemDto.getRequestId());
             checkedItem.setItemRequest(itemRequest);
         }
-        User owner = getUserById(userId);
-        checkedItem.setOwner(owner);
         checkedItem.setId(itemId);
-        return itemToItemDto(itemRepository.save(checkedItem), userId);
+        Item savedItem = itemRepository.save(checkedItem);
+        if (savedItem.getItemRequest() != null) {
+            itemRequestMatcher.onItemRequestAnswered(savedItem.getItemRequest().getId());
+        }
+        itemSearchIndex.index(savedItem);
+        itemRequestFeed.onItemSaved(savedItem);
+        itemDetailCache.invalidate(itemId);
+        return itemToItemDto(savedItem, userId);
     }
 
     @Override
@@ -119,12 +151,27 @@ public class ItemServiceImpl implements ItemService {
 
     @Override
     public ItemDto getItemById(long itemId, Long userId) {
-        if (itemRepository.findById(itemId).isEmpty()) {
+        LocalDateTime currentDate = LocalDateTime.now();
+        ItemDto cachedItemDto = itemDetailCache.get(itemId, userId, currentDate);
+        if (cachedItemDto != null) {
+            return cachedItemDto;
+        }
+        long generation = itemDetailCache.generation();
+        Item item = itemRepository.findById(itemId).orElseThrow(() -> {
             String message = String.format("%s %d %s", "Вещь с id =", itemId, "не найдена");
             log.info(message);
-            throw new NotFoundException(message);
-        }
-        return itemToItemDto(itemRepository.findById(itemId).get(), userId);
+            return new NotFoundException(message);
+        });
+        long ownerId = item.getOwner().getId();
+        List<Long> itemIds = List.of(itemId);
+        ItemBookingView nextBooking = findBookingsByItems(itemIds, currentDate, false).get(itemId);
+        ItemDto itemDto = toItemDto(item,
+                findBookingsByItems(itemIds, currentDate, true).get(itemId),
+                nextBooking,
+                findCommentsByItems(itemIds).getOrDefault(itemId, new ArrayList<>()));
+        itemDetailCache.put(itemId, ownerId, itemDto,
+                nextBooking == null ? null : nextBooking.getStartDate(), generation);
+        return ItemDetailCache.viewFor(itemDto, ownerId, userId);
     }
 
     @Override
@@ -133,56 +180,93 @@ public class ItemServiceImpl implements ItemService {
         if (text.equals("")) {
             return new ArrayList<>();
         }
-        return itemsToItemsDto(itemRepository.findAvailableItemsByNameOrDescription(text, text, PageRequest.of(from / size, size)), userId);
+        List<Long> itemIds = itemSearchIndex.search(text, from, size);
+        List<Item> items = findItemsInOrder(itemIds);
+        while (items.size() < itemIds.size()) {
+            Set<Long> missingItemIds = new HashSet<>(itemIds);
+            for (Item item : items) {
+                missingItemIds.remove(item.getId());
+            }
+            missingItemIds.forEach(itemSearchIndex::remove);
+            itemIds = itemSearchIndex.search(text, from, size);
+            items = findItemsInOrder(itemIds);
+        }
+        return itemsToItemsDto(items, userId);
+    }
+
+    private List<Item> findItemsInOrder(List<Long> itemIds) {
+        if (itemIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, Item> itemsById = new HashMap<>();
+        for (Item item : itemRepository.findItemsByIds(itemIds)) {
+            itemsById.put(item.getId(), item);
+        }
+        List<Item> items = new ArrayList<>();
+        for (Long itemId : itemIds) {
+            if (itemsById.containsKey(itemId)) {
+                items.add(itemsById.get(itemId));
+            }
+        }
+        return items;
     }
 
     private List<ItemDto> itemsToItemsDto(List<Item> items, Long userId) {
         List<ItemDto> itemsDto = new ArrayList<>();
+        if (items.isEmpty()) {
+            return itemsDto;
+        }
+        LocalDateTime currentDate = LocalDateTime.now();
+        List<Long> itemIds = new ArrayList<>();
+        List<Long> ownItemIds = new ArrayList<>();
         for (Item item : items) {
-            itemsDto.add(itemToItemDto(item, userId));
+            itemIds.add(item.getId());
+            if (userId.equals(item.getOwner().getId())) {
+                ownItemIds.add(item.getId());
+            }
+        }
+        Map<Long, ItemBookingView> lastBookings = findBookingsByItems(ownItemIds, currentDate, true);
+        Map<Long, ItemBookingView> nextBookings = findBookingsByItems(ownItemIds, currentDate, false);
+        Map<Long, List<CommentDto>> comments = findCommentsByItems(itemIds);
+        for (Item item : items) {
+            itemsDto.add(toItemDto(item, lastBookings.get(item.getId()), nextBookings.get(item.getId()),
+                    comments.getOrDefault(item.getId(), new ArrayList<>())));
         }
         return itemsDto;
     }
 
-    private ItemDto itemToItemDto(Item item, Long userId) {
-        if (item == null) {
-            return null;
-        }
+    private ItemDto toItemDto(Item item, ItemBookingView lastBooking, ItemBookingView nextBooking,
+                              List<CommentDto> comments) {
         ItemDto itemDto = ItemDtoMapper.mapRow(item);
-        setNextAndLastBookings(item, userId, itemDto);
-        setComments(item, itemDto);
+        itemDto.setLastBooking(lastBooking == null ? null : LastAndNextBookingDtoMapper.mapRow(lastBooking));
+        itemDto.setNextBooking(nextBooking == null ? null : LastAndNextBookingDtoMapper.mapRow(nextBooking));
+        itemDto.setComments(comments);
         return itemDto;
     }
 
-    private List<CommentDto> commentsToCommentsDto(List<Comment> comments) {
-        List<CommentDto> commentsDto = new ArrayList<>();
-        for (Comment comment : comments) {
-            commentsDto.add(CommentDtoMapper.mapRow(comment));
+    private ItemDto itemToItemDto(Item item, Long userId) {
+        if (item == null) {
+            return null;
         }
-        return commentsDto;
+        return itemsToItemsDto(List.of(item), userId).get(0);
     }
 
-
-    private void setNextAndLastBookings(Item item, Long userId, ItemDto itemDto) {
-        LocalDateTime currentDate = LocalDateTime.now();
-        if (userId.equals(item.getOwner().getId())) {
-            if (bookingRepository.findLastBooking(item.getId(), currentDate, BookingStatus.APPROVED.toString()) != null) {
-                itemDto.setLastBooking(LastAndNextBookingDtoMapper
-                        .mapRow(bookingRepository.findLastBooking(item.getId(), currentDate, BookingStatus.APPROVED.toString())));
-            }
-            if (bookingRepository.findNextBooking(item.getId(), currentDate, BookingStatus.APPROVED.toString()) != null) {
-                itemDto.setNextBooking(LastAndNextBookingDtoMapper
-                        .mapRow(bookingRepository.findNextBooking(item.getId(), currentDate, BookingStatus.APPROVED.toString())));
-            }
+    private Map<Long, List<CommentDto>> findCommentsByItems(List<Long> itemIds) {
+        Map<Long, List<CommentDto>> comments = new HashMap<>();
+        for (Comment comment : commentRepository.findCommentsByItemIds(itemIds)) {
+            comments.computeIfAbsent(comment.getItem().getId(), id -> new ArrayList<>())
+                    .add(CommentDtoMapper.mapRow(comment));
         }
+        return comments;
     }
 
-    private void setComments(Item item, ItemDto itemDto) {
-        if (!commentRepository.findCommentsByItem(item).isEmpty()) {
-            itemDto.setComments(commentsToCommentsDto(commentRepository.findCommentsByItem(item)));
-        } else {
-            itemDto.setComments(new ArrayList<>());
+    private Map<Long, ItemBookingView> findBookingsByItems(List<Long> itemIds, LocalDateTime currentDate, boolean last) {
+        if (itemIds.isEmpty()) {
+            return new HashMap<>();
         }
+        return last
+                ? lastAndNextBookingRegistry.findLastBookings(itemIds, currentDate)
+                : lastAndNextBookingRegistry.findNextBookings(itemIds, currentDate);
     }
 
     private Item checkFieldsForUpdate(Item item, long itemId, Long userId) {
@@ -191,17 +275,17 @@ public class ItemServiceImpl implements ItemService {
             log.info(message);
             throw new InternalServerException(message);
         }
-        if (itemRepository.findById(itemId).isEmpty()) {
+        Item itemFromDb = itemRepository.findById(itemId).orElseThrow(() -> {
             String message = String.format("%s %d %s", "Вещь с id =", itemId, "не найдена");
             log.info(message);
-            throw new NotFoundException(message);
-        }
-        Item itemFromDb = itemRepository.findById(itemId).get();
+            return new NotFoundException(message);
+        });
         if (!userId.equals(itemFromDb.getOwner().getId())) {
             String message = "Изменять вещь может только владелец";
             log.info(message);
             throw new ForbiddenException(message);
         }
+        item.setOwner(itemFromDb.getOwner());
         if (item.getName() == null) {
             item.setName(itemFromDb.getName());
         }
@@ -215,19 +299,15 @@ public class ItemServiceImpl implements ItemService {
     }
 
     private User getUserById(long userId) {
-        if (userRepository.findById(userId).isEmpty()) {
+        return userRepository.findById(userId).orElseThrow(() -> {
             String message = String.format("%s %d %s", "Пользватель с id =", userId, "не найден");
             log.info(message);
-            throw new NotFoundException(message);
-        }
-        return userRepository.findById(userId).get();
+            return new NotFoundException(message);
+        });
     }
 
     private ItemRequest getRequestById(Long requestId) {
-        if (itemRequestRepository.findById(requestId).isPresent()) {
-            return itemRequestRepository.findById(requestId).get();
-        }
-        return null;
+        return itemRequestRepository.findById(requestId).orElse(null);
     }
 
     private void checkFormAndSize(Integer from, Integer size) {
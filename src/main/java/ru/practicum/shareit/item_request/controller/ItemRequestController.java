@@ -1,16 +1,25 @@
 package ru.practicum.shareit.item_request.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item_request.dto.ItemRequestDto;
 import ru.practicum.shareit.item_request.dto.RequestBodyItemRequestDto;
 import ru.practicum.shareit.item_request.service.ItemRequestService;
+import ru.practicum.shareit.pagination.KeysetCursor;
 
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Slf4j
 @RestController
@@ -18,11 +27,16 @@ import java.util.List;
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class ItemRequestController {
     final ItemRequestService itemRequestService;
+    final ObjectMapper objectMapper;
     final String headerUserValue = "X-Sharer-User-Id";
+    final String headerNextCursor = "X-Next-Cursor";
+    final int defaultPageSize = 10;
 
     @Autowired
-    public ItemRequestController(@Qualifier("ItemRequestServiceImpl") ItemRequestService itemRequestService) {
+    public ItemRequestController(@Qualifier("ItemRequestServiceImpl") ItemRequestService itemRequestService,
+                                 ObjectMapper objectMapper) {
         this.itemRequestService = itemRequestService;
+        this.objectMapper = objectMapper;
     }
 
     @PostMapping
@@ -32,10 +46,44 @@ public class ItemRequestController {
         return itemRequestService.addNewItemRequest(userId, requestBodyRequestDto);
     }
 
+    /**
+     * Без параметров возвращает все заявки пользователя. С параметром size - страницу:
+     * по смещению from или, если передан cursor, после указанной позиции; from без size недопустим.
+     */
     @GetMapping
-    public List<ItemRequestDto> getOwnItemRequests(@RequestHeader(value = headerUserValue, required = false) Long userId) {
+    public ResponseEntity<List<ItemRequestDto>> getOwnItemRequests(@RequestHeader(value = headerUserValue, required = false) Long userId,
+                                                                   @RequestParam(required = false) Integer from,
+                                                                   @RequestParam(required = false) Integer size,
+                                                                   @RequestParam(required = false) String cursor) {
         log.info("Запрос на получение своих заявок");
-        return itemRequestService.getOwnItemRequests(userId);
+        if (from == null && size == null && cursor == null) {
+            return ResponseEntity.ok(itemRequestService.getOwnItemRequests(userId));
+        }
+        if (cursor == null) {
+            return ResponseEntity.ok(itemRequestService.getOwnItemRequests(userId, from == null ? 0 : from, size));
+        }
+        int pageSize = size == null ? defaultPageSize : size;
+        return withNextCursor(itemRequestService.getOwnItemRequestsAfter(userId, cursor, pageSize), pageSize);
+    }
+
+    /**
+     * Все заявки пользователя в формате NDJSON: по одной заявке в строке,
+     * запись идёт по мере чтения заявок из базы.
+     */
+    @GetMapping(params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamOwnItemRequests(@RequestHeader(value = headerUserValue, required = false) Long userId) {
+        log.info("Запрос на потоковое получение своих заявок");
+        Stream<ItemRequestDto> itemRequests = itemRequestService.streamOwnItemRequests(userId);
+        StreamingResponseBody body = outputStream -> {
+            try (itemRequests) {
+                Iterator<ItemRequestDto> iterator = itemRequests.iterator();
+                while (iterator.hasNext()) {
+                    outputStream.write(objectMapper.writeValueAsBytes(iterator.next()));
+                    outputStream.write('\n');
+                }
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
     }
 
     @GetMapping("/all")
@@ -46,10 +94,35 @@ public class ItemRequestController {
         return itemRequestService.getAllItemRequests(from, size, userId);
     }
 
+    /**
+     * Подписка на новые заявки других пользователей: каждая приходит событием item-request.
+     */
+    @GetMapping(value = "/all/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeToItemRequests(@RequestHeader(value = headerUserValue, required = false) Long userId) {
+        log.info("Запрос на подписку на новые заявки");
+        return itemRequestService.subscribeToItemRequests(userId);
+    }
+
+    @GetMapping("/{requestId}/suggestions")
+    public List<ItemDto> getSuggestedItems(@RequestHeader(value = headerUserValue, required = false) Long userId,
+                                           @PathVariable long requestId) {
+        log.info(String.format("%s %d", "Запрос на получение предложенных вещей для заявки с id =", requestId));
+        return itemRequestService.getSuggestedItems(userId, requestId);
+    }
+
     @GetMapping("/{requestId}")
     public ItemRequestDto getRequestById(@RequestHeader(value = headerUserValue, required = false) Long userId,
                                          @PathVariable long requestId) {
         log.info(String.format("%s %d", "Запрос на получение заявки с id =", requestId));
         return itemRequestService.getRequestById(userId, requestId);
     }
+
+    private ResponseEntity<List<ItemRequestDto>> withNextCursor(List<ItemRequestDto> itemRequests, Integer size) {
+        if (itemRequests.isEmpty() || itemRequests.size() < size) {
+            return ResponseEntity.ok(itemRequests);
+        }
+        ItemRequestDto last = itemRequests.get(itemRequests.size() - 1);
+        String nextCursor = new KeysetCursor(last.getCreated(), last.getId()).encode();
+        return ResponseEntity.ok().header(headerNextCursor, nextCursor).body(itemRequests);
+    }
 }
@@ -0,0 +1,32 @@
+package ru.practicum.shareit.item_request.model;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+import ru.practicum.shareit.item.model.Item;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "item_request_suggestions")
+public class ItemRequestSuggestion {
+    @Id
+    @Column(name = "id")
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    long id;
+    @ManyToOne
+    @JoinColumn(name = "item_request_id", referencedColumnName = "id")
+    ItemRequest itemRequest;
+    @ManyToOne
+    @JoinColumn(name = "item_id", referencedColumnName = "id")
+    Item item;
+    @Column(name = "score")
+    double score;
+    @Column(name = "create_date")
+    LocalDateTime created;
+}
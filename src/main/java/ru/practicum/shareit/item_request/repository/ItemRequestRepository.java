@@ -6,12 +6,30 @@ import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.item_request.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
-    @Query(value = "select ir from ItemRequest ir where ir.author = :author order by ir.created desc")
+    @Query(value = "select ir from ItemRequest ir join fetch ir.author where ir.author = :author order by ir.created desc")
     List<ItemRequest> findItemRequestsByAuthor(User author);
 
-    @Query(value = "select ir from ItemRequest ir where ir.author <> :user order by ir.created desc")
+    @Query(value = "select ir from ItemRequest ir join fetch ir.author where ir.author = :author " +
+            "order by ir.created desc, ir.id desc")
+    List<ItemRequest> findItemRequestsByAuthor(User author, Pageable pageable);
+
+    @Query(value = "select ir from ItemRequest ir join fetch ir.author where ir.author = :author " +
+            "and (ir.created < :created or (ir.created = :created and ir.id < :id)) " +
+            "order by ir.created desc, ir.id desc")
+    List<ItemRequest> findItemRequestsByAuthorAfter(User author, LocalDateTime created, long id, Pageable pageable);
+
+    @Query(value = "select ir from ItemRequest ir join fetch ir.author where ir.author <> :user " +
+            "order by ir.created desc, ir.id desc")
     List<ItemRequest> findAllItemRequests(User user, Pageable pageable);
+
+    @Query(value = "select ir from ItemRequest ir join fetch ir.author order by ir.created desc, ir.id desc")
+    List<ItemRequest> findNewestItemRequests(Pageable pageable);
+
+    @Query(value = "select ir from ItemRequest ir join fetch ir.author " +
+            "where not exists (select i.id from Item i where i.itemRequest = ir)")
+    List<ItemRequest> findOpenItemRequests();
 }
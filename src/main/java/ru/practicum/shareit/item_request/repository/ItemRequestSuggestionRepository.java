@@ -0,0 +1,14 @@
+package ru.practicum.shareit.item_request.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item_request.model.ItemRequestSuggestion;
+
+import java.util.List;
+
+public interface ItemRequestSuggestionRepository extends JpaRepository<ItemRequestSuggestion, Long> {
+    @Query(value = "select i from ItemRequestSuggestion s join s.item i join fetch i.owner " +
+            "where s.itemRequest.id = :requestId and i.available is true order by s.score desc, i.id asc")
+    List<Item> findSuggestedItems(long requestId);
+}
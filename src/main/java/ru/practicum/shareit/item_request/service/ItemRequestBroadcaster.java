@@ -0,0 +1,173 @@
+package ru.practicum.shareit.item_request.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.item_request.dto.ItemRequestDto;
+import ru.practicum.shareit.item_request.dto.ItemRequestDtoMapper;
+import ru.practicum.shareit.item_request.model.ItemRequest;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Рассылка новых заявок подписчикам по SSE.
+ */
+@Slf4j
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ItemRequestBroadcaster {
+    static final String EVENT_NAME = "item-request";
+    static final String HEARTBEAT_COMMENT = "heartbeat";
+
+    final Map<SseEmitter, Subscriber> subscribers = new ConcurrentHashMap<>();
+    final ExecutorService sender;
+    final long timeoutMillis;
+    final int bufferSize;
+    final long sendTimeoutMillis;
+    final Counter overflows;
+    final Counter stalled;
+
+    @Autowired
+    public ItemRequestBroadcaster(MeterRegistry meterRegistry,
+                                  @Value("${shareit.requests.events.timeout-ms:1800000}") long timeoutMillis,
+                                  @Value("${shareit.requests.events.buffer-size:100}") int bufferSize,
+                                  @Value("${shareit.requests.events.sender-threads:4}") int senderThreads,
+                                  @Value("${shareit.requests.events.send-timeout-ms:10000}") long sendTimeoutMillis) {
+        this(meterRegistry, timeoutMillis, bufferSize, sendTimeoutMillis,
+                Executors.newFixedThreadPool(senderThreads, new CustomizableThreadFactory("shareit-events-")));
+    }
+
+    ItemRequestBroadcaster(MeterRegistry meterRegistry, long timeoutMillis, int bufferSize, long sendTimeoutMillis,
+                           ExecutorService sender) {
+        this.sender = sender;
+        this.timeoutMillis = timeoutMillis;
+        this.bufferSize = bufferSize;
+        this.sendTimeoutMillis = sendTimeoutMillis;
+        this.overflows = meterRegistry.counter("shareit.requests.events.overflows");
+        this.stalled = meterRegistry.counter("shareit.requests.events.stalled");
+        Gauge.builder("shareit.requests.events.subscribers", subscribers, Map::size).register(meterRegistry);
+    }
+
+    public SseEmitter subscribe(long userId) {
+        return subscribe(userId, new SseEmitter(timeoutMillis));
+    }
+
+    SseEmitter subscribe(long userId, SseEmitter emitter) {
+        subscribers.put(emitter, new Subscriber(userId, new ArrayBlockingQueue<>(bufferSize)));
+        emitter.onCompletion(() -> subscribers.remove(emitter));
+        emitter.onTimeout(() -> subscribers.remove(emitter));
+        emitter.onError(e -> subscribers.remove(emitter));
+        return emitter;
+    }
+
+    public void publish(ItemRequest itemRequest) {
+        ItemRequestDto itemRequestDto = ItemRequestDtoMapper.mapRow(itemRequest);
+        itemRequestDto.setItems(new ArrayList<>());
+        long authorId = itemRequest.getAuthor().getId();
+        subscribers.forEach((emitter, subscriber) -> {
+            if (subscriber.userId != authorId && !subscriber.buffer.offer(itemRequestDto)) {
+                log.info(String.format("%s %d %s", "Подписчик с id =", subscriber.userId, "не успевает получать заявки и отключён"));
+                overflows.increment();
+                subscribers.remove(emitter);
+                emitter.complete();
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.requests.events.flush-ms:200}")
+    public void flush() {
+        subscribers.forEach(this::dispatch);
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.requests.events.heartbeat-ms:15000}")
+    public void heartbeat() {
+        subscribers.forEach((emitter, subscriber) -> {
+            subscriber.heartbeatPending = true;
+            dispatch(emitter, subscriber);
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+    }
+
+    private void dispatch(SseEmitter emitter, Subscriber subscriber) {
+        if (subscriber.buffer.isEmpty() && !subscriber.heartbeatPending) {
+            return;
+        }
+        long currentTime = System.currentTimeMillis();
+        long sendingSince = subscriber.sendingSince.get();
+        if (sendingSince != 0) {
+            if (currentTime - sendingSince >= sendTimeoutMillis && subscribers.remove(emitter) != null) {
+                log.info(String.format("%s %d %s", "Подписчик с id =", subscriber.userId, "не принимает заявки и отключён"));
+                stalled.increment();
+            }
+            return;
+        }
+        if (!subscriber.sendingSince.compareAndSet(0, currentTime)) {
+            return;
+        }
+        try {
+            sender.execute(() -> send(emitter, subscriber));
+        } catch (RejectedExecutionException e) {
+            subscriber.sendingSince.set(0);
+        }
+    }
+
+    private void send(SseEmitter emitter, Subscriber subscriber) {
+        try {
+            List<ItemRequestDto> itemRequestsDto = new ArrayList<>();
+            subscriber.buffer.drainTo(itemRequestsDto);
+            for (ItemRequestDto itemRequestDto : itemRequestsDto) {
+                emitter.send(SseEmitter.event()
+                        .id(String.valueOf(itemRequestDto.getId()))
+                        .name(EVENT_NAME)
+                        .data(itemRequestDto));
+            }
+            if (subscriber.heartbeatPending) {
+                subscriber.heartbeatPending = false;
+                if (itemRequestsDto.isEmpty()) {
+                    emitter.send(SseEmitter.event().comment(HEARTBEAT_COMMENT));
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            subscribers.remove(emitter);
+            emitter.completeWithError(e);
+        } finally {
+            subscriber.sendingSince.set(0);
+        }
+    }
+
+    int subscriberCount() {
+        return subscribers.size();
+    }
+
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    private static class Subscriber {
+        final long userId;
+        final BlockingQueue<ItemRequestDto> buffer;
+        final AtomicLong sendingSince = new AtomicLong();
+        volatile boolean heartbeatPending;
+
+        Subscriber(long userId, BlockingQueue<ItemRequestDto> buffer) {
+            this.userId = userId;
+            this.buffer = buffer;
+        }
+    }
+}
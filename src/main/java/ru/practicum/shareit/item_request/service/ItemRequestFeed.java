@@ -0,0 +1,237 @@
+package ru.practicum.shareit.item_request.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemDtoMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item_request.dto.ItemRequestDto;
+import ru.practicum.shareit.item_request.model.ItemRequest;
+import ru.practicum.shareit.item_request.repository.ItemRequestRepository;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Лента последних заявок с ответами на них в кольцевом буфере.
+ */
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ItemRequestFeed {
+    static final int ITEMS_BATCH_SIZE = 1000;
+
+    final ItemRequestRepository itemRequestRepository;
+    final ItemRepository itemRepository;
+    final int capacity;
+    final Entry[] ring;
+    final Map<Long, Entry> entriesByRequest = new HashMap<>();
+    final Map<Long, Long> requestsByItem = new HashMap<>();
+    final ReadWriteLock lock = new ReentrantReadWriteLock();
+    final Counter hits;
+    final Counter misses;
+    int head = -1;
+    int size;
+    boolean loaded;
+    boolean complete;
+
+    @Autowired
+    public ItemRequestFeed(ItemRequestRepository itemRequestRepository,
+                           ItemRepository itemRepository,
+                           MeterRegistry meterRegistry,
+                           @Value("${shareit.requests.feed.capacity:1000}") int capacity) {
+        this.itemRequestRepository = itemRequestRepository;
+        this.itemRepository = itemRepository;
+        this.capacity = capacity;
+        this.ring = new Entry[capacity];
+        this.hits = meterRegistry.counter("shareit.requests.feed", "result", "hit");
+        this.misses = meterRegistry.counter("shareit.requests.feed", "result", "miss");
+    }
+
+    public List<ItemRequestDto> page(long userId, int from, int size) {
+        load();
+        lock.readLock().lock();
+        try {
+            long skip = (long) (from / size) * size;
+            List<ItemRequestDto> itemRequestsDto = new ArrayList<>();
+            for (int i = 0; i < this.size && itemRequestsDto.size() < size; i++) {
+                Entry entry = ring[Math.floorMod(head - i, capacity)];
+                if (entry.authorId == userId) {
+                    continue;
+                }
+                if (skip > 0) {
+                    skip--;
+                    continue;
+                }
+                itemRequestsDto.add(entry.toItemRequestDto());
+            }
+            if (itemRequestsDto.size() < size && !complete) {
+                misses.increment();
+                return null;
+            }
+            hits.increment();
+            return itemRequestsDto;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void onItemRequestCreated(ItemRequest itemRequest) {
+        lock.writeLock().lock();
+        try {
+            if (!loaded || entriesByRequest.containsKey(itemRequest.getId())) {
+                return;
+            }
+            insert(new Entry(itemRequest));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void onItemSaved(Item item) {
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                return;
+            }
+            Long oldRequestId = requestsByItem.remove(item.getId());
+            if (oldRequestId != null) {
+                entriesByRequest.get(oldRequestId).items.remove(item.getId());
+            }
+            if (item.getItemRequest() != null) {
+                attach(item);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            reset();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void load() {
+        lock.readLock().lock();
+        try {
+            if (loaded) {
+                return;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        lock.writeLock().lock();
+        try {
+            if (loaded) {
+                return;
+            }
+            List<ItemRequest> itemRequests = itemRequestRepository.findNewestItemRequests(PageRequest.of(0, capacity));
+            for (int i = itemRequests.size() - 1; i >= 0; i--) {
+                push(new Entry(itemRequests.get(i)));
+            }
+            List<Long> requestIds = new ArrayList<>(entriesByRequest.keySet());
+            for (int i = 0; i < requestIds.size(); i += ITEMS_BATCH_SIZE) {
+                List<Long> batch = requestIds.subList(i, Math.min(i + ITEMS_BATCH_SIZE, requestIds.size()));
+                itemRepository.findItemsByRequestIds(batch).forEach(this::attach);
+            }
+            complete = itemRequests.size() < capacity;
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void push(Entry entry) {
+        head = (head + 1) % capacity;
+        Entry evicted = ring[head];
+        if (evicted != null) {
+            entriesByRequest.remove(evicted.id);
+            evicted.items.keySet().forEach(requestsByItem::remove);
+            complete = false;
+        }
+        ring[head] = entry;
+        size = Math.min(size + 1, capacity);
+        entriesByRequest.put(entry.id, entry);
+    }
+
+    private void insert(Entry entry) {
+        int newer = 0;
+        while (newer < size && ring[Math.floorMod(head - newer, capacity)].isAfter(entry)) {
+            newer++;
+        }
+        if (newer == size && (size == capacity || !complete)) {
+            return;
+        }
+        push(entry);
+        for (int i = 0; i < newer; i++) {
+            int current = Math.floorMod(head - i, capacity);
+            int older = Math.floorMod(head - i - 1, capacity);
+            ring[current] = ring[older];
+            ring[older] = entry;
+        }
+    }
+
+    private void attach(Item item) {
+        Entry entry = entriesByRequest.get(item.getItemRequest().getId());
+        if (entry != null) {
+            entry.items.put(item.getId(), ItemDtoMapper.mapRow(item));
+            requestsByItem.put(item.getId(), entry.id);
+        }
+    }
+
+    private void reset() {
+        Arrays.fill(ring, null);
+        entriesByRequest.clear();
+        requestsByItem.clear();
+        head = -1;
+        size = 0;
+        loaded = false;
+        complete = false;
+    }
+
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    private static class Entry {
+        long id;
+        long authorId;
+        String description;
+        LocalDateTime created;
+        SortedMap<Long, ItemDto> items = new TreeMap<>();
+
+        Entry(ItemRequest itemRequest) {
+            this.id = itemRequest.getId();
+            this.authorId = itemRequest.getAuthor().getId();
+            this.description = itemRequest.getDescription();
+            this.created = itemRequest.getCreated();
+        }
+
+        boolean isAfter(Entry other) {
+            int compared = created.compareTo(other.created);
+            return compared > 0 || (compared == 0 && id > other.id);
+        }
+
+        ItemRequestDto toItemRequestDto() {
+            List<ItemDto> itemsDto = new ArrayList<>();
+            for (ItemDto itemDto : items.values()) {
+                itemsDto.add(itemDto.toBuilder().build());
+            }
+            return ItemRequestDto.builder()
+                    .id(id)
+                    .description(description)
+                    .created(created)
+                    .items(itemsDto)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package ru.practicum.shareit.item_request.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item_request.model.ItemRequest;
+import ru.practicum.shareit.item_request.model.ItemRequestSuggestion;
+import ru.practicum.shareit.item_request.repository.ItemRequestRepository;
+import ru.practicum.shareit.item_request.repository.ItemRequestSuggestionRepository;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Подбор открытых заявок для новых вещей.
+ */
+@Slf4j
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ItemRequestMatcher {
+    static final int MIN_TOKEN_LENGTH = 3;
+    static final int MAX_ENDING_LENGTH = 2;
+
+    final ItemRequestRepository itemRequestRepository;
+    final ItemRepository itemRepository;
+    final ItemRequestSuggestionRepository itemRequestSuggestionRepository;
+    final BlockingQueue<Item> queue;
+    final int batchSize;
+    final double minScore;
+    final Map<Long, OpenRequest> openRequests = new HashMap<>();
+    final Map<String, Set<Long>> postings = new HashMap<>();
+    final Counter suggestions;
+    final Counter dropped;
+
+    @Autowired
+    public ItemRequestMatcher(ItemRequestRepository itemRequestRepository,
+                              ItemRepository itemRepository,
+                              ItemRequestSuggestionRepository itemRequestSuggestionRepository,
+                              MeterRegistry meterRegistry,
+                              @Value("${shareit.requests.matching.queue-capacity:10000}") int queueCapacity,
+                              @Value("${shareit.requests.matching.batch-size:100}") int batchSize,
+                              @Value("${shareit.requests.matching.min-score:0.5}") double minScore) {
+        this.itemRequestRepository = itemRequestRepository;
+        this.itemRepository = itemRepository;
+        this.itemRequestSuggestionRepository = itemRequestSuggestionRepository;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.minScore = minScore;
+        this.suggestions = meterRegistry.counter("shareit.requests.matching.suggestions");
+        this.dropped = meterRegistry.counter("shareit.requests.matching.dropped");
+        Gauge.builder("shareit.requests.matching.queue.size", queue, Collection::size).register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        openRequests.clear();
+        postings.clear();
+        itemRequestRepository.findOpenItemRequests().forEach(this::put);
+        log.info(String.format("%s %d", "Индекс открытых заявок построен, заявок:", openRequests.size()));
+    }
+
+    public synchronized void onItemRequestCreated(ItemRequest itemRequest) {
+        put(itemRequest);
+    }
+
+    public void onItemCreated(Item item) {
+        if (item.getItemRequest() != null) {
+            onItemRequestAnswered(item.getItemRequest().getId());
+            return;
+        }
+        if (Boolean.TRUE.equals(item.getAvailable()) && !queue.offer(item)) {
+            dropped.increment();
+        }
+    }
+
+    public synchronized void onItemRequestAnswered(long requestId) {
+        OpenRequest openRequest = openRequests.remove(requestId);
+        if (openRequest == null) {
+            return;
+        }
+        for (String stem : openRequest.stems) {
+            Set<Long> requestIds = postings.get(stem);
+            requestIds.remove(requestId);
+            if (requestIds.isEmpty()) {
+                postings.remove(stem);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.requests.matching.delay-ms:500}")
+    public void processQueue() {
+        if (processBatch() == batchSize) {
+            log.debug("Очередь подбора заявок обработана не полностью, продолжим при следующем запуске");
+        }
+    }
+
+    int processBatch() {
+        List<Item> items = new ArrayList<>();
+        queue.drainTo(items, batchSize);
+        if (items.isEmpty()) {
+            return 0;
+        }
+        LocalDateTime currentDate = LocalDateTime.now();
+        for (Item item : items) {
+            save(item, match(item), currentDate);
+        }
+        return items.size();
+    }
+
+    private void save(Item item, Map<Long, Double> matches, LocalDateTime currentDate) {
+        List<ItemRequestSuggestion> itemSuggestions = new ArrayList<>();
+        for (Map.Entry<Long, Double> match : matches.entrySet()) {
+            if (!isOpen(match.getKey())) {
+                continue;
+            }
+            itemSuggestions.add(ItemRequestSuggestion.builder()
+                    .itemRequest(itemRequestRepository.getReferenceById(match.getKey()))
+                    .item(itemRepository.getReferenceById(item.getId()))
+                    .score(match.getValue())
+                    .created(currentDate)
+                    .build());
+        }
+        if (itemSuggestions.isEmpty()) {
+            return;
+        }
+        try {
+            itemRequestSuggestionRepository.saveAll(itemSuggestions);
+            suggestions.increment(itemSuggestions.size());
+        } catch (RuntimeException e) {
+            log.warn(String.format("%s %d", "Не удалось сохранить предложения для вещи с id =", item.getId()), e);
+        }
+    }
+
+    private synchronized boolean isOpen(long requestId) {
+        return openRequests.containsKey(requestId);
+    }
+
+    synchronized Map<Long, Double> match(Item item) {
+        Set<String> itemStems = stems(item.getName() + " " + item.getDescription());
+        Map<Long, Integer> matchedStems = new HashMap<>();
+        for (String stem : itemStems) {
+            for (long requestId : postings.getOrDefault(stem, Set.of())) {
+                matchedStems.merge(requestId, 1, Integer::sum);
+            }
+        }
+        Map<Long, Double> matches = new HashMap<>();
+        for (Map.Entry<Long, Integer> matched : matchedStems.entrySet()) {
+            OpenRequest openRequest = openRequests.get(matched.getKey());
+            double score = (double) matched.getValue() / openRequest.stems.size();
+            if (score >= minScore && openRequest.authorId != item.getOwner().getId()) {
+                matches.put(matched.getKey(), score);
+            }
+        }
+        return matches;
+    }
+
+    private void put(ItemRequest itemRequest) {
+        Set<String> stems = stems(itemRequest.getDescription());
+        if (stems.isEmpty()) {
+            return;
+        }
+        openRequests.put(itemRequest.getId(), new OpenRequest(itemRequest.getAuthor().getId(), stems));
+        for (String stem : stems) {
+            postings.computeIfAbsent(stem, key -> new HashSet<>()).add(itemRequest.getId());
+        }
+    }
+
+    static Set<String> stems(String text) {
+        Set<String> stems = new HashSet<>();
+        if (text == null) {
+            return stems;
+        }
+        for (String token : text.toLowerCase().split("[^\\p{L}\\p{N}]+")) {
+            if (token.length() < MIN_TOKEN_LENGTH) {
+                continue;
+            }
+            int length = Math.max(MIN_TOKEN_LENGTH, token.length() - MAX_ENDING_LENGTH);
+            stems.add(token.substring(0, length));
+        }
+        return stems;
+    }
+
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    private static class OpenRequest {
+        long authorId;
+        Set<String> stems;
+
+        OpenRequest(long authorId, Set<String> stems) {
+            this.authorId = authorId;
+            this.stems = stems;
+        }
+    }
+}
@@ -1,16 +1,29 @@
 package ru.practicum.shareit.item_request.service;
 
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item_request.dto.ItemRequestDto;
 import ru.practicum.shareit.item_request.dto.RequestBodyItemRequestDto;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface ItemRequestService {
     ItemRequestDto addNewItemRequest(Long userId, RequestBodyItemRequestDto requestBodyRequestDto);
 
     List<ItemRequestDto> getOwnItemRequests(Long userId);
 
+    List<ItemRequestDto> getOwnItemRequests(Long userId, Integer from, Integer size);
+
+    List<ItemRequestDto> getOwnItemRequestsAfter(Long userId, String cursor, Integer size);
+
+    Stream<ItemRequestDto> streamOwnItemRequests(Long userId);
+
     List<ItemRequestDto> getAllItemRequests(Integer from, Integer size, Long userId);
 
     ItemRequestDto getRequestById(Long userId, long requestId);
+
+    List<ItemDto> getSuggestedItems(Long userId, long requestId);
+
+    SseEmitter subscribeToItemRequests(Long userId);
 }
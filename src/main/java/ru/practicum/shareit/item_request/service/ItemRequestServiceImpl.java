@@ -6,7 +6,10 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.exception.ForbiddenException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.dto.ItemDto;
@@ -19,12 +22,18 @@ import ru.practicum.shareit.item_request.dto.RequestBodyItemRequestDto;
 import ru.practicum.shareit.item_request.dto.RequestBodyItemRequestDtoMapper;
 import ru.practicum.shareit.item_request.model.ItemRequest;
 import ru.practicum.shareit.item_request.repository.ItemRequestRepository;
+import ru.practicum.shareit.item_request.repository.ItemRequestSuggestionRepository;
+import ru.practicum.shareit.pagination.KeysetCursor;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import javax.persistence.EntityManager;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 @Service
 @Slf4j
@@ -34,22 +43,44 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     final ItemRequestRepository itemRequestRepository;
     final ItemRepository itemRepository;
     final UserRepository userRepository;
+    final ItemRequestFeed itemRequestFeed;
+    final ItemRequestSuggestionRepository itemRequestSuggestionRepository;
+    final ItemRequestMatcher itemRequestMatcher;
+    final ItemRequestBroadcaster itemRequestBroadcaster;
+    final EntityManager entityManager;
+    static final int STREAM_CHUNK_SIZE = 100;
     final ItemRequestValidation itemRequestValidation = new ItemRequestValidation();
 
     @Autowired
     public ItemRequestServiceImpl(ItemRequestRepository itemRequestRepository,
                                   ItemRepository itemRepository,
-                                  UserRepository userRepository) {
+                                  UserRepository userRepository,
+                                  ItemRequestFeed itemRequestFeed,
+                                  ItemRequestSuggestionRepository itemRequestSuggestionRepository,
+                                  ItemRequestMatcher itemRequestMatcher,
+                                  ItemRequestBroadcaster itemRequestBroadcaster,
+                                  EntityManager entityManager) {
         this.itemRequestRepository = itemRequestRepository;
         this.itemRepository = itemRepository;
         this.userRepository = userRepository;
+        this.itemRequestFeed = itemRequestFeed;
+        this.itemRequestSuggestionRepository = itemRequestSuggestionRepository;
+        this.itemRequestMatcher = itemRequestMatcher;
+        this.itemRequestBroadcaster = itemRequestBroadcaster;
+        this.entityManager = entityManager;
     }
 
     @Override
     public ItemRequestDto addNewItemRequest(Long userId, RequestBodyItemRequestDto requestBodyItemRequestDto) {
         ItemRequest itemRequest = createItemRequest(requestBodyItemRequestDto, userId);
         itemRequestValidation.itemRequestValidation(requestBodyItemRequestDto);
-        return itemRequestToItemRequestDto(itemRequestRepository.save(itemRequest));
+        ItemRequest savedItemRequest = itemRequestRepository.save(itemRequest);
+        itemRequestFeed.onItemRequestCreated(savedItemRequest);
+        itemRequestMatcher.onItemRequestCreated(savedItemRequest);
+        itemRequestBroadcaster.publish(savedItemRequest);
+        ItemRequestDto itemRequestDto = ItemRequestDtoMapper.mapRow(savedItemRequest);
+        itemRequestDto.setItems(new ArrayList<>());
+        return itemRequestDto;
     }
 
     @Override
@@ -59,25 +90,69 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     }
 
     @Override
-    public List<ItemRequestDto> getAllItemRequests(Integer from, Integer size, Long userId) {
-        User user = getUserById(userId);
-        if (from < 0 || size < 1) {
-            String message = "Номер страницы или количество элементов недопустимо";
+    public List<ItemRequestDto> getOwnItemRequests(Long userId, Integer from, Integer size) {
+        if (size == null) {
+            String message = "Параметр from передан без параметра size";
             log.info(message);
             throw new ValidationException(message);
         }
+        checkFromAndSize(from, size);
+        User author = getUserById(userId);
+        return findOwnItemRequests(author, null, PageRequest.of(from / size, size));
+    }
+
+    @Override
+    public List<ItemRequestDto> getOwnItemRequestsAfter(Long userId, String cursor, Integer size) {
+        checkFromAndSize(0, size);
+        User author = getUserById(userId);
+        return findOwnItemRequests(author, KeysetCursor.decode(cursor), PageRequest.of(0, size));
+    }
+
+    /**
+     * Заявки автора читаются порциями по STREAM_CHUNK_SIZE по мере потребления потока.
+     * Первая порция читается сразу, поэтому ошибки (например, неизвестный пользователь)
+     * возникают до начала записи ответа. После преобразования порции в dto контекст
+     * персистентности очищается: при open-in-view он живёт до конца ответа и иначе
+     * накапливал бы все прочитанные заявки и вещи.
+     */
+    @Override
+    public Stream<ItemRequestDto> streamOwnItemRequests(Long userId) {
+        User author = getUserById(userId);
+        PageRequest pageRequest = PageRequest.of(0, STREAM_CHUNK_SIZE);
+        List<ItemRequestDto> firstChunk = findOwnItemRequestsChunk(author, null, pageRequest);
+        return Stream.iterate(firstChunk, chunk -> !chunk.isEmpty(), chunk -> chunk.size() < STREAM_CHUNK_SIZE
+                        ? List.of()
+                        : findOwnItemRequestsChunk(author, cursorAfter(chunk), pageRequest))
+                .flatMap(List::stream);
+    }
+
+    @Override
+    public List<ItemRequestDto> getAllItemRequests(Integer from, Integer size, Long userId) {
+        User user = getUserById(userId);
+        checkFromAndSize(from, size);
+        List<ItemRequestDto> itemRequestsDto = itemRequestFeed.page(user.getId(), from, size);
+        if (itemRequestsDto != null) {
+            return itemRequestsDto;
+        }
         return itemRequestsToItemRequestsDto(itemRequestRepository.findAllItemRequests(user, PageRequest.of(from / size, size)));
     }
 
     @Override
     public ItemRequestDto getRequestById(Long userId, long requestId) {
         getUserById(userId);
-        if (itemRequestRepository.findById(requestId).isEmpty()) {
-            String message = String.format("%s %d %s", "Заявка с id =", userId, "не найдена");
+        return itemRequestToItemRequestDto(getItemRequestById(requestId));
+    }
+
+    @Override
+    public List<ItemDto> getSuggestedItems(Long userId, long requestId) {
+        User user = getUserById(userId);
+        ItemRequest itemRequest = getItemRequestById(requestId);
+        if (itemRequest.getAuthor().getId() != user.getId()) {
+            String message = String.format("%s %d %s", "Предложения по заявке с id =", requestId, "доступны только её автору");
             log.info(message);
-            throw new NotFoundException(message);
+            throw new ForbiddenException(message);
         }
-        return itemRequestToItemRequestDto(itemRequestRepository.findById(requestId).get());
+        return itemsToItemsDto(itemRequestSuggestionRepository.findSuggestedItems(requestId));
     }
 
     private ItemRequest createItemRequest(RequestBodyItemRequestDto requestBodyItemRequestDto, Long userId) {
@@ -89,31 +164,75 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         return itemRequest;
     }
 
-    private ItemRequestDto itemRequestToItemRequestDto(ItemRequest itemRequest) {
-        ItemRequestDto itemRequestDto = ItemRequestDtoMapper.mapRow(itemRequest);
-        List<Item> items = new ArrayList<>();
-        if (!itemRepository.findItemsByRequests(itemRequest.getId()).isEmpty()) {
-            items = itemRepository.findItemsByRequests(itemRequest.getId());
+    @Override
+    public SseEmitter subscribeToItemRequests(Long userId) {
+        User user = getUserById(userId);
+        return itemRequestBroadcaster.subscribe(user.getId());
+    }
+
+    private List<ItemRequestDto> findOwnItemRequests(User author, KeysetCursor cursor, Pageable pageable) {
+        if (cursor == null) {
+            return itemRequestsToItemRequestsDto(itemRequestRepository.findItemRequestsByAuthor(author, pageable));
         }
-        itemRequestDto.setItems(itemsToItemsDto(items));
-        return itemRequestDto;
+        return itemRequestsToItemRequestsDto(itemRequestRepository.findItemRequestsByAuthorAfter(author,
+                cursor.getDate(), cursor.getId(), pageable));
+    }
+
+    private List<ItemRequestDto> findOwnItemRequestsChunk(User author, KeysetCursor cursor, Pageable pageable) {
+        List<ItemRequestDto> chunk = findOwnItemRequests(author, cursor, pageable);
+        entityManager.clear();
+        return chunk;
+    }
+
+    private static KeysetCursor cursorAfter(List<ItemRequestDto> itemRequestsDto) {
+        ItemRequestDto last = itemRequestsDto.get(itemRequestsDto.size() - 1);
+        return new KeysetCursor(last.getCreated(), last.getId());
+    }
+
+    private ItemRequestDto itemRequestToItemRequestDto(ItemRequest itemRequest) {
+        return itemRequestsToItemRequestsDto(List.of(itemRequest)).get(0);
     }
 
     private List<ItemRequestDto> itemRequestsToItemRequestsDto(List<ItemRequest> itemRequests) {
         List<ItemRequestDto> itemRequestsDto = new ArrayList<>();
+        if (itemRequests.isEmpty()) {
+            return itemRequestsDto;
+        }
+        Map<Long, List<Item>> itemsByRequest = findItemsByRequests(itemRequests);
         for (ItemRequest itemRequest : itemRequests) {
-            itemRequestsDto.add(itemRequestToItemRequestDto(itemRequest));
+            ItemRequestDto itemRequestDto = ItemRequestDtoMapper.mapRow(itemRequest);
+            itemRequestDto.setItems(itemsToItemsDto(itemsByRequest.getOrDefault(itemRequest.getId(), new ArrayList<>())));
+            itemRequestsDto.add(itemRequestDto);
         }
         return itemRequestsDto;
     }
 
+    private Map<Long, List<Item>> findItemsByRequests(List<ItemRequest> itemRequests) {
+        List<Long> requestIds = new ArrayList<>();
+        for (ItemRequest itemRequest : itemRequests) {
+            requestIds.add(itemRequest.getId());
+        }
+        Map<Long, List<Item>> itemsByRequest = new HashMap<>();
+        for (Item item : itemRepository.findItemsByRequestIds(requestIds)) {
+            itemsByRequest.computeIfAbsent(item.getItemRequest().getId(), id -> new ArrayList<>()).add(item);
+        }
+        return itemsByRequest;
+    }
+
+    private ItemRequest getItemRequestById(long requestId) {
+        return itemRequestRepository.findById(requestId).orElseThrow(() -> {
+            String message = String.format("%s %d %s", "Заявка с id =", requestId, "не найдена");
+            log.info(message);
+            return new NotFoundException(message);
+        });
+    }
+
     private User getUserById(Long userId) {
-        if (userRepository.findById(userId).isEmpty()) {
+        return userRepository.findById(userId).orElseThrow(() -> {
             String message = String.format("%s %d %s", "Пользователь с id =", userId, "не найден");
             log.info(message);
-            throw new NotFoundException(message);
-        }
-        return userRepository.findById(userId).get();
+            return new NotFoundException(message);
+        });
     }
 
     private List<ItemDto> itemsToItemsDto(List<Item> items) {
@@ -123,4 +242,12 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         }
         return itemsDto;
     }
+
+    private void checkFromAndSize(Integer from, Integer size) {
+        if (from < 0 || size < 1) {
+            String message = "Номер страницы или количество элементов недопустимо";
+            log.info(message);
+            throw new ValidationException(message);
+        }
+    }
 }
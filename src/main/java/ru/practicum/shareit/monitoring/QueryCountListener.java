@@ -0,0 +1,36 @@
+package ru.practicum.shareit.monitoring;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.hibernate.BaseSessionEventListener;
+
+/**
+ * Слушатель событий сессии Hibernate, передающий время каждого выполненного
+ * SQL-запроса и пакета в {@link QueryStatistics}.
+ * Подключается свойством hibernate.session.events.auto.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class QueryCountListener extends BaseSessionEventListener {
+    long statementStart;
+    long batchStart;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        statementStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        QueryStatistics.record(System.nanoTime() - statementStart);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        batchStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        QueryStatistics.record(System.nanoTime() - batchStart);
+    }
+}
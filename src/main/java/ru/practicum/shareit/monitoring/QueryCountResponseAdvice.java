@@ -0,0 +1,36 @@
+package ru.practicum.shareit.monitoring;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Добавляет к ответу заголовки с количеством и временем SQL-запросов,
+ * выполненных до начала записи тела ответа.
+ */
+@RestControllerAdvice
+public class QueryCountResponseAdvice implements ResponseBodyAdvice<Object> {
+    public static final String HEADER_QUERY_COUNT = "X-Query-Count";
+    public static final String HEADER_QUERY_TIME = "X-Query-Time-Ms";
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        QueryStatistics statistics = QueryStatistics.current();
+        if (statistics != null) {
+            response.getHeaders().set(HEADER_QUERY_COUNT, String.valueOf(statistics.getStatements()));
+            response.getHeaders().set(HEADER_QUERY_TIME, String.valueOf(statistics.getMillis()));
+        }
+        return body;
+    }
+}
@@ -0,0 +1,44 @@
+package ru.practicum.shareit.monitoring;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * Количество и суммарное время SQL-запросов, выполненных в текущем потоке с момента вызова start.
+ * Вне HTTP-запроса (фоновые задачи, тесты сервисов) статистика не собирается.
+ */
+@Getter
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class QueryStatistics {
+    static final ThreadLocal<QueryStatistics> CURRENT = new ThreadLocal<>();
+
+    long statements;
+    long nanos;
+
+    public static void start() {
+        CURRENT.set(new QueryStatistics());
+    }
+
+    public static QueryStatistics current() {
+        return CURRENT.get();
+    }
+
+    public static QueryStatistics stop() {
+        QueryStatistics statistics = CURRENT.get();
+        CURRENT.remove();
+        return statistics;
+    }
+
+    static void record(long nanos) {
+        QueryStatistics statistics = CURRENT.get();
+        if (statistics != null) {
+            statistics.statements++;
+            statistics.nanos += nanos;
+        }
+    }
+
+    public long getMillis() {
+        return nanos / 1_000_000;
+    }
+}
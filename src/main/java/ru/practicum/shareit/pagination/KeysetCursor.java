@@ -0,0 +1,52 @@
+package ru.practicum.shareit.pagination;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import ru.practicum.shareit.exception.ValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Позиция в списке, отсортированном по (дата desc, id desc): бронирования сортируются
+ * по дате начала, заявки - по дате создания. Клиенту отдаётся в виде непрозрачной строки.
+ */
+@Slf4j
+@Data
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class KeysetCursor {
+    static final String SEPARATOR = "_";
+
+    LocalDateTime date;
+    long id;
+
+    /**
+     * Пустой курсор означает первую страницу, для неё возвращается null.
+     */
+    public static KeysetCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separatorIndex = value.lastIndexOf(SEPARATOR);
+            return new KeysetCursor(LocalDateTime.parse(value.substring(0, separatorIndex)),
+                    Long.parseLong(value.substring(separatorIndex + 1)));
+        } catch (java.lang.IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            String message = "Некорректное значение cursor";
+            log.info(message);
+            throw new ValidationException(message);
+        }
+    }
+
+    public String encode() {
+        String value = date + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
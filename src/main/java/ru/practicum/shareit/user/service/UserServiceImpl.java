@@ -6,8 +6,16 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
+import ru.practicum.shareit.booking.service.BookingStateCounters;
+import ru.practicum.shareit.booking.service.LastAndNextBookingRegistry;
 import ru.practicum.shareit.exception.IsAlreadyExistsException;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchCache;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.item.service.ItemDetailCache;
+import ru.practicum.shareit.item_request.service.ItemRequestFeed;
+import ru.practicum.shareit.item_request.service.ItemRequestMatcher;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.dto.UserDtoMapper;
 import ru.practicum.shareit.user.model.User;
@@ -22,11 +30,35 @@ import java.util.List;
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class UserServiceImpl implements UserService {
     final UserRepository userRepository;
+    final ItemRepository itemRepository;
+    final ItemSearchIndex itemSearchIndex;
+    final ItemSearchCache itemSearchCache;
+    final ItemDetailCache itemDetailCache;
+    final LastAndNextBookingRegistry lastAndNextBookingRegistry;
+    final BookingStateCounters bookingStateCounters;
+    final ItemRequestFeed itemRequestFeed;
+    final ItemRequestMatcher itemRequestMatcher;
     final UserValidation userValidation = new UserValidation();
 
     @Autowired
-    public UserServiceImpl(UserRepository userRepository) {
+    public UserServiceImpl(UserRepository userRepository,
+                           ItemRepository itemRepository,
+                           ItemSearchIndex itemSearchIndex,
+                           ItemSearchCache itemSearchCache,
+                           ItemDetailCache itemDetailCache,
+                           LastAndNextBookingRegistry lastAndNextBookingRegistry,
+                           BookingStateCounters bookingStateCounters,
+                           ItemRequestFeed itemRequestFeed,
+                           ItemRequestMatcher itemRequestMatcher) {
         this.userRepository = userRepository;
+        this.itemRepository = itemRepository;
+        this.itemSearchIndex = itemSearchIndex;
+        this.itemSearchCache = itemSearchCache;
+        this.itemDetailCache = itemDetailCache;
+        this.lastAndNextBookingRegistry = lastAndNextBookingRegistry;
+        this.bookingStateCounters = bookingStateCounters;
+        this.itemRequestFeed = itemRequestFeed;
+        this.itemRequestMatcher = itemRequestMatcher;
     }
 
     @Override
@@ -45,7 +77,9 @@ public class UserServiceImpl implements UserService {
         User checkedUser = checkFieldsForUpdate(user, userId);
         userValidation.userValidation(checkedUser);
         checkedUser.setId(userId);
-        return UserDtoMapper.mapRow(userRepository.save(checkedUser));
+        UserDto userDto = UserDtoMapper.mapRow(userRepository.save(checkedUser));
+        itemDetailCache.clear();
+        return userDto;
     }
 
     @Override
@@ -60,8 +94,16 @@ public class UserServiceImpl implements UserService {
 
     @Override
     public void deleteUser(long userId) {
-        getUser(userId);
+        User user = getUser(userId);
+        List<Long> itemIds = itemRepository.findItemIdsByOwner(user);
         userRepository.deleteById(userId);
+        itemIds.forEach(itemSearchIndex::remove);
+        itemSearchCache.clear();
+        itemDetailCache.clear();
+        lastAndNextBookingRegistry.clear();
+        bookingStateCounters.clear();
+        itemRequestFeed.clear();
+        itemRequestMatcher.rebuild();
         log.info(String.format("%s %d %s", "Пользователь с id =", userId, "удалён"));
     }
 
@@ -85,11 +127,10 @@ public class UserServiceImpl implements UserService {
     }
 
     private User getUser(long userId) {
-        if (userRepository.findById(userId).isEmpty()) {
+        return userRepository.findById(userId).orElseThrow(() -> {
             String message = String.format("%s %d %s", "Пользователь с id =", userId, "не найден");
             log.info(message);
-            throw new NotFoundException(message);
-        }
-        return userRepository.findById(userId).get();
+            return new NotFoundException(message);
+        });
     }
 }
@@ -1,4 +1,5 @@
 DROP TABLE IF EXISTS item_requests_items CASCADE;
+DROP TABLE IF EXISTS item_request_suggestions CASCADE;
 DROP TABLE IF EXISTS item_requests CASCADE;
 DROP TABLE IF EXISTS comments CASCADE;
 DROP TABLE IF EXISTS bookings CASCADE;
@@ -18,6 +19,8 @@ CREATE TABLE IF NOT EXISTS item_requests (
      description VARCHAR(500) NOT NULL
 );
 
+CREATE INDEX IF NOT EXISTS item_requests_author_created_idx ON item_requests (author_id, create_date DESC, id DESC);
+
 CREATE TABLE IF NOT EXISTS items (
     id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
     name VARCHAR(100) NOT NULL,
@@ -27,15 +30,23 @@ CREATE TABLE IF NOT EXISTS items (
     item_request_id INTEGER REFERENCES item_requests(id) ON DELETE CASCADE
     );
 
+CREATE INDEX IF NOT EXISTS items_owner_idx ON items (owner_id, id);
+CREATE INDEX IF NOT EXISTS items_item_request_idx ON items (item_request_id);
+
 CREATE TABLE IF NOT EXISTS bookings (
     id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
     item_id INTEGER REFERENCES items(id) ON DELETE CASCADE,
     booker_id INTEGER REFERENCES users(id) ON DELETE CASCADE,
     start_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
     end_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
-    booking_status VARCHAR(40) NOT NULL
+    booking_status VARCHAR(40) NOT NULL,
+    version BIGINT NOT NULL DEFAULT 0
     );
 
+CREATE INDEX IF NOT EXISTS bookings_booker_start_idx ON bookings (booker_id, start_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS bookings_item_start_idx ON bookings (item_id, start_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS bookings_item_status_start_idx ON bookings (item_id, booking_status, start_date);
+
 CREATE TABLE IF NOT EXISTS comments (
     id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
     item_id INTEGER REFERENCES items(id) ON DELETE CASCADE,
@@ -44,3 +55,11 @@ CREATE TABLE IF NOT EXISTS comments (
     text VARCHAR(500) NOT NULL
     );
 
+CREATE TABLE IF NOT EXISTS item_request_suggestions (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    item_request_id INTEGER REFERENCES item_requests(id) ON DELETE CASCADE,
+    item_id INTEGER REFERENCES items(id) ON DELETE CASCADE,
+    score DOUBLE PRECISION NOT NULL,
+    create_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    UNIQUE (item_request_id, item_id)
+    );
@@ -1,6 +1,7 @@
 package ru.practicum.shareit.booking.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import lombok.AccessLevel;
 import lombok.SneakyThrows;
 import lombok.experimental.FieldDefaults;
@@ -11,21 +12,28 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.util.LinkedMultiValueMap;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingShortDto;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.booking.service.BookingState;
 import ru.practicum.shareit.exception.IsAlreadyDoneException;
 import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.pagination.KeysetCursor;
 
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -33,6 +41,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = BookingController.class)
+@Import(SimpleMeterRegistry.class)
 @AutoConfigureMockMvc
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class BookingControllerTest {
@@ -48,6 +57,7 @@ public class BookingControllerTest {
     BookingDto bookingDtoCorrect;
     BookingDto bookingDtoEmptyEnd;
     BookingDto bookingDtoIsAlreadyApproved;
+    BookingShortDto bookingShortDtoCorrect;
     final String pathBookings = "/bookings";
     final String pathBookingId = "/{bookingId}";
     final String headerUserValue = "X-Sharer-User-Id";
@@ -59,6 +69,8 @@ public class BookingControllerTest {
                 .end(LocalDateTime.now().plus(10, ChronoUnit.DAYS)).status(BookingStatus.WAITING).build();
         bookingDtoEmptyEnd = BookingDto.builder().id(2L).start(LocalDateTime.now())
                 .end(null).status(BookingStatus.WAITING).build();
+        bookingShortDtoCorrect = BookingShortDto.builder().id(1L).start(bookingDtoCorrect.getStart())
+                .end(bookingDtoCorrect.getEnd()).status(BookingStatus.WAITING).build();
         bookingDtoIsAlreadyApproved = BookingDto.builder().id(3L).start(LocalDateTime.now())
                 .end(LocalDateTime.now().plus(10, ChronoUnit.DAYS)).status(BookingStatus.APPROVED).build();
     }
@@ -146,7 +158,7 @@ public class BookingControllerTest {
         requestParams.add("size", "10");
         requestParams.add("state", "ALL");
 
-        when(bookingService.getBookingCurrentUser(anyLong(), anyString(), anyInt(), anyInt())).thenReturn(List.of(bookingDtoCorrect));
+        when(bookingService.getBookingCurrentUser(anyLong(), anyString(), anyInt(), anyInt())).thenReturn(List.of(bookingShortDtoCorrect));
 
         mockMvc.perform(get(pathBookings)
                         .header(headerUserValue, 1)
@@ -164,7 +176,7 @@ public class BookingControllerTest {
         requestParams.add("size", "10");
         requestParams.add("state", "ALL");
 
-        when(bookingService.getBookingForItemsCurrentUser(anyLong(), anyString(), anyInt(), anyInt())).thenReturn(List.of(bookingDtoCorrect));
+        when(bookingService.getBookingForItemsCurrentUser(anyLong(), anyString(), anyInt(), anyInt())).thenReturn(List.of(bookingShortDtoCorrect));
 
         mockMvc.perform(get(pathBookings + "/owner")
                         .header(headerUserValue, 1)
@@ -174,6 +186,66 @@ public class BookingControllerTest {
         verify(bookingService).getBookingForItemsCurrentUser(anyLong(), anyString(), anyInt(), anyInt());
     }
 
+    @SneakyThrows
+    @Test
+    void getBookingsForCurrentUserTest_whenNoCursor_thenNoNextCursorHeader() {
+        LinkedMultiValueMap<String, String> requestParams = new LinkedMultiValueMap<>();
+        requestParams.add("from", "0");
+        requestParams.add("size", "1");
+
+        when(bookingService.getBookingCurrentUser(anyLong(), anyString(), anyInt(), anyInt())).thenReturn(List.of(bookingShortDtoCorrect));
+
+        String nextCursor = mockMvc.perform(get(pathBookings)
+                        .header(headerUserValue, 1)
+                        .params(requestParams))
+                .andExpect(status().is2xxSuccessful())
+                .andReturn()
+                .getResponse()
+                .getHeader("X-Next-Cursor");
+
+        assertNull(nextCursor);
+    }
+
+    @SneakyThrows
+    @Test
+    void getBookingsForCurrentUserTest_whenCursorPresent_thenNextCursorHeader() {
+        LinkedMultiValueMap<String, String> requestParams = new LinkedMultiValueMap<>();
+        requestParams.add("size", "1");
+        requestParams.add("state", "ALL");
+        requestParams.add("cursor", "");
+
+        when(bookingService.getBookingCurrentUserAfter(anyLong(), anyString(), anyString(), anyInt())).thenReturn(List.of(bookingShortDtoCorrect));
+
+        String nextCursor = mockMvc.perform(get(pathBookings)
+                        .header(headerUserValue, 1)
+                        .params(requestParams))
+                .andExpect(status().is2xxSuccessful())
+                .andReturn()
+                .getResponse()
+                .getHeader("X-Next-Cursor");
+
+        verify(bookingService).getBookingCurrentUserAfter(anyLong(), anyString(), anyString(), anyInt());
+        assertEquals(new KeysetCursor(bookingShortDtoCorrect.getStart(), bookingShortDtoCorrect.getId()).encode(), nextCursor);
+    }
+
+    @SneakyThrows
+    @Test
+    void getBookingCountsForCurrentUserTest() {
+        Map<BookingState, Long> counts = new EnumMap<>(BookingState.class);
+        counts.put(BookingState.ALL, 2L);
+        counts.put(BookingState.WAITING, 1L);
+        when(bookingService.getBookingCountsCurrentUser(anyLong())).thenReturn(counts);
+
+        String result = mockMvc.perform(get(pathBookings + "/counts").header(headerUserValue, 1))
+                .andExpect(status().is2xxSuccessful())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(StandardCharsets.UTF_8);
+
+        verify(bookingService).getBookingCountsCurrentUser(1L);
+        assertEquals("{\"ALL\":2,\"WAITING\":1}", result);
+    }
+
     @SneakyThrows
     @Test
     void getBookingByIdTest() {
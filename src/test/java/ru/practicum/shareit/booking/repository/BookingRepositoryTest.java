@@ -7,15 +7,39 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
 import ru.practicum.shareit.TestHelper;
+import ru.practicum.shareit.booking.dto.BookingPeriodCountView;
+import ru.practicum.shareit.booking.dto.BookingStatusCountView;
+import ru.practicum.shareit.booking.dto.BookingView;
+import ru.practicum.shareit.booking.dto.ItemBookingView;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.*;
 
 @DataJpaTest
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class BookingRepositoryTest {
     @Autowired
     BookingRepository bookingRepository;
+    @Autowired
+    ItemRepository itemRepository;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    TestEntityManager entityManager;
     final TestHelper testHelper = new TestHelper();
 
     @BeforeEach
@@ -32,4 +56,175 @@ public class BookingRepositoryTest {
     void saveBookingsTest() {
         assertEquals(bookingRepository.findAll().size(), 1);
     }
+
+    @Test
+    void findAllBookingsForUserTest_thenOnlyViewColumns() {
+        User owner = userRepository.save(testHelper.getUser());
+        User booker = userRepository.save(testHelper.getSecondUser());
+        Item item = saveItem(owner);
+        Booking booking = saveBooking(item, booker);
+
+        List<BookingView> result = bookingRepository.findAllBookingsForUser(booker, PageRequest.of(0, 10));
+
+        assertEquals(1, result.size());
+        assertEquals(booking.getId(), result.get(0).getId());
+        assertEquals(item.getId(), result.get(0).getItemId());
+        assertEquals(item.getName(), result.get(0).getItemName());
+        assertEquals(booker.getId(), result.get(0).getBookerId());
+        assertEquals(booking.getStatus(), result.get(0).getStatus());
+    }
+
+    @Test
+    void findAllBookingsForOwnerTest_thenOnlyBookingsOfOwnerItems() {
+        User owner = userRepository.save(testHelper.getUser());
+        User booker = userRepository.save(testHelper.getSecondUser());
+        Booking booking = saveBooking(saveItem(owner), booker);
+        saveBooking(saveItem(booker), owner);
+
+        List<BookingView> result = bookingRepository.findAllBookingsForOwner(owner, PageRequest.of(0, 10));
+
+        assertEquals(1, result.size());
+        assertEquals(booking.getId(), result.get(0).getId());
+    }
+
+    @Test
+    void findAllBookingsForUserAfterTest_thenOnlyBookingsAfterCursor() {
+        User owner = userRepository.save(testHelper.getUser());
+        User booker = userRepository.save(testHelper.getSecondUser());
+        Item item = saveItem(owner);
+        LocalDateTime currentDate = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        Booking earlier = bookingRepository.save(Booking.builder().item(item).booker(booker)
+                .status(BookingStatus.APPROVED).start(currentDate.plusDays(1)).end(currentDate.plusDays(2)).build());
+        Booking later = bookingRepository.save(Booking.builder().item(item).booker(booker)
+                .status(BookingStatus.APPROVED).start(currentDate.plusDays(3)).end(currentDate.plusDays(4)).build());
+
+        List<BookingView> firstPage = bookingRepository.findAllBookingsForUser(booker, PageRequest.of(0, 1));
+        List<BookingView> nextPage = bookingRepository.findAllBookingsForUserAfter(booker, later.getStart(), later.getId(), PageRequest.of(0, 1));
+
+        assertEquals(later.getId(), firstPage.get(0).getId());
+        assertEquals(1, nextPage.size());
+        assertEquals(earlier.getId(), nextPage.get(0).getId());
+    }
+
+    @Test
+    void saveBookingTest_whenStaleVersion_thenOptimisticLockingFailure() {
+        User owner = userRepository.save(testHelper.getUser());
+        User booker = userRepository.save(testHelper.getSecondUser());
+        long bookingId = saveBooking(saveItem(owner), booker).getId();
+        entityManager.flush();
+        entityManager.clear();
+        Booking stale = bookingRepository.findById(bookingId).orElseThrow();
+        entityManager.detach(stale);
+
+        Booking current = bookingRepository.findById(bookingId).orElseThrow();
+        current.setStatus(BookingStatus.REJECTED);
+        bookingRepository.saveAndFlush(current);
+        stale.setStatus(BookingStatus.APPROVED);
+
+        assertEquals(1, current.getVersion());
+        assertThrows(OptimisticLockingFailureException.class, () -> bookingRepository.saveAndFlush(stale));
+    }
+
+    @Test
+    void countBookingsForUserTest_thenGroupedByStatusAndUnfinishedPeriod() {
+        User owner = userRepository.save(testHelper.getUser());
+        User booker = userRepository.save(testHelper.getSecondUser());
+        Item item = saveItem(owner);
+        LocalDateTime currentDate = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        for (int i = 0; i < 2; i++) {
+            bookingRepository.save(Booking.builder().item(item).booker(booker).status(BookingStatus.WAITING)
+                    .start(currentDate.plusDays(1)).end(currentDate.plusDays(2)).build());
+        }
+        bookingRepository.save(Booking.builder().item(item).booker(booker).status(BookingStatus.APPROVED)
+                .start(currentDate.minusDays(2)).end(currentDate.minusDays(1)).build());
+
+        List<BookingStatusCountView> statuses = bookingRepository.countBookingStatusesForUser(booker);
+        List<BookingPeriodCountView> periods = bookingRepository.countUnfinishedBookingPeriodsForUser(booker, currentDate);
+
+        assertEquals(2, statuses.size());
+        assertEquals(1, periods.size());
+        assertEquals(2L, periods.get(0).getCount());
+        assertEquals(currentDate.plusDays(1), periods.get(0).getStartDate());
+    }
+
+    @Test
+    void isItemBookedBetweenTest_thenOnlyOverlappingIntervals() {
+        User owner = userRepository.save(testHelper.getUser());
+        User booker = userRepository.save(testHelper.getSecondUser());
+        Item item = saveItem(owner);
+        Booking booking = saveBooking(item, booker);
+
+        assertTrue(bookingRepository.isItemBookedBetween(item.getId(), booking.getStart().minusDays(1),
+                booking.getStart().plusDays(1), BookingStatus.APPROVED));
+        assertFalse(bookingRepository.isItemBookedBetween(item.getId(), booking.getEnd(),
+                booking.getEnd().plusDays(1), BookingStatus.APPROVED));
+        assertFalse(bookingRepository.isItemBookedBetween(item.getId(), booking.getStart(),
+                booking.getEnd(), BookingStatus.WAITING));
+    }
+
+    @Test
+    void existsPastBookingTest_thenOnlyFinishedApprovedBookingOfBooker() {
+        User owner = userRepository.save(testHelper.getUser());
+        User booker = userRepository.save(testHelper.getSecondUser());
+        Item item = saveItem(owner);
+        Booking booking = saveBooking(item, booker);
+        LocalDateTime currentDate = LocalDateTime.now();
+
+        assertTrue(bookingRepository.existsByItemIdAndBookerIdAndStatusAndEndBefore(item.getId(), booker.getId(),
+                BookingStatus.APPROVED, currentDate));
+        assertFalse(bookingRepository.existsByItemIdAndBookerIdAndStatusAndEndBefore(item.getId(), owner.getId(),
+                BookingStatus.APPROVED, currentDate));
+        assertFalse(bookingRepository.existsByItemIdAndBookerIdAndStatusAndEndBefore(item.getId(), booker.getId(),
+                BookingStatus.APPROVED, booking.getEnd()));
+    }
+
+    @Test
+    void findLastAndNextBookingsTest_thenOnePerItemAroundStartDate() {
+        User owner = userRepository.save(testHelper.getUser());
+        User booker = userRepository.save(testHelper.getSecondUser());
+        Item item = saveItem(owner);
+        Booking pastBooking = saveBooking(item, booker);
+        LocalDateTime currentDate = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        Booking laterBooking = bookingRepository.save(Booking.builder().item(item).booker(booker)
+                .status(BookingStatus.APPROVED).start(currentDate.plusDays(5)).end(currentDate.plusDays(6)).build());
+        Booking nextBooking = bookingRepository.save(Booking.builder().item(item).booker(booker)
+                .status(BookingStatus.APPROVED).start(currentDate.plusDays(1)).end(currentDate.plusDays(2)).build());
+
+        List<ItemBookingView> last = bookingRepository.findLastBookings(List.of(item.getId()), currentDate, BookingStatus.APPROVED);
+        List<ItemBookingView> next = bookingRepository.findNextBookings(List.of(item.getId()), currentDate, BookingStatus.APPROVED);
+
+        assertEquals(1, last.size());
+        assertEquals(pastBooking.getId(), last.get(0).getId());
+        assertEquals(1, next.size());
+        assertEquals(nextBooking.getId(), next.get(0).getId());
+        assertEquals(nextBooking.getStart(), next.get(0).getStartDate());
+        assertNotEquals(laterBooking.getId(), next.get(0).getId());
+    }
+
+    @Test
+    void bookerStateQueryTest_thenUsesBookerStartIndex() {
+        assertThat(explain("select id from bookings where booker_id = 1 and start_date > now() " +
+                "order by start_date desc, id desc limit 10")).containsIgnoringCase("bookings_booker_start_idx");
+    }
+
+    @Test
+    void lastBookingQueryTest_thenUsesItemStatusStartIndex() {
+        assertThat(explain("select max(start_date) from bookings where item_id = 1 " +
+                "and booking_status = 'APPROVED' and start_date < now()")).containsIgnoringCase("bookings_item_status_start_idx");
+    }
+
+    private String explain(String query) {
+        return entityManager.getEntityManager().createNativeQuery("explain " + query).getSingleResult().toString();
+    }
+
+    private Item saveItem(User owner) {
+        return itemRepository.save(Item.builder().name("itemName").description("itemDesc").available(true).owner(owner).build());
+    }
+
+    private Booking saveBooking(Item item, User booker) {
+        Booking booking = testHelper.getBooking();
+        return bookingRepository.save(Booking.builder().item(item).booker(booker).status(booking.getStatus())
+                .start(booking.getStart().truncatedTo(ChronoUnit.SECONDS))
+                .end(booking.getEnd().truncatedTo(ChronoUnit.SECONDS)).build());
+    }
 }
@@ -10,9 +10,12 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import ru.practicum.shareit.TestHelper;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoMapper;
+import ru.practicum.shareit.booking.dto.BookingShortDto;
 import ru.practicum.shareit.booking.dto.RequestBodyBookingDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
@@ -23,7 +26,9 @@ import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemDetailCache;
 import ru.practicum.shareit.item_request.repository.ItemRequestRepository;
+import ru.practicum.shareit.pagination.KeysetCursor;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
@@ -31,7 +36,14 @@ import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -52,6 +64,12 @@ public class BookingServiceTest {
     ItemRepository itemRepository;
     @Mock
     BookingRepository bookingRepository;
+    @Mock
+    ItemDetailCache itemDetailCache;
+    @Mock
+    LastAndNextBookingRegistry lastAndNextBookingRegistry;
+    @Mock
+    BookingStateCounters bookingStateCounters;
     @InjectMocks
     BookingServiceImpl bookingServiceImpl;
     User booker;
@@ -79,6 +97,8 @@ public class BookingServiceTest {
         bookingDto = BookingDtoMapper.mapRow(booking);
 
         when(itemRequestRepository.save(any())).thenAnswer(input -> input.getArguments()[0]);
+        when(bookingRepository.save(any())).thenAnswer(input -> input.getArguments()[0]);
+        when(bookingRepository.findItemIdById(anyLong())).thenReturn(Optional.of(item.getId()));
     }
 
     @Test
@@ -89,7 +109,21 @@ public class BookingServiceTest {
 
         bookingServiceImpl.addNewBooking(requestBodyBookingDto, userId);
 
+        verify(itemRepository, times(1)).findById(anyLong());
+        verify(userRepository, times(1)).findById(anyLong());
         verify(bookingRepository).save(any());
+        verify(bookingStateCounters).onCreated(any());
+    }
+
+    @Test
+    void addBookingTest_whenOverlapsApprovedBooking_thenThrowException() {
+        when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(booker));
+        when(bookingRepository.isItemBookedBetween(anyLong(), any(), any(), eq(BookingStatus.APPROVED))).thenReturn(true);
+
+        assertThrows(ValidationException.class,
+                () -> bookingServiceImpl.addNewBooking(requestBodyBookingDto, userId));
+        verify(bookingRepository, never()).save(any());
     }
 
     @Test
@@ -201,6 +235,25 @@ public class BookingServiceTest {
         bookingServiceImpl.approveOrRejectBooking(owner.getId(), bookingId, true);
 
         verify(bookingRepository).save(any());
+        verify(itemDetailCache).invalidate(item.getId());
+        verify(lastAndNextBookingRegistry).onStatusChanged(booking);
+    }
+
+    @Test
+    void approvedBookingTest_whenVersionConflict_thenReadAgainAndApprove() {
+        Booking stale = Booking.builder().id(bookingId).item(item).booker(booker).status(BookingStatus.WAITING)
+                .start(booking.getStart()).end(booking.getEnd()).build();
+        booking.setItem(item);
+        booking.setStatus(BookingStatus.WAITING);
+        when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(stale), Optional.of(booking));
+        when(bookingRepository.save(any()))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Booking.class, bookingId))
+                .thenAnswer(input -> input.getArguments()[0]);
+
+        BookingDto result = bookingServiceImpl.approveOrRejectBooking(owner.getId(), bookingId, true);
+
+        assertEquals(BookingStatus.APPROVED, result.getStatus());
+        verify(bookingRepository, times(2)).findById(bookingId);
     }
 
     @Test
@@ -231,6 +284,7 @@ public class BookingServiceTest {
     @Test
     void approvedBookingTest_whenBooingIsNotFound_thenThrowException() {
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(owner));
+        when(bookingRepository.findItemIdById(anyLong())).thenReturn(Optional.empty());
 
         assertThrows(NotFoundException.class,
                 () -> bookingServiceImpl.approveOrRejectBooking(userId, bookingId, false));
@@ -254,7 +308,7 @@ public class BookingServiceTest {
 
         BookingDto result = bookingServiceImpl.getBookingById(booker.getId(), bookingId);
 
-        verify(bookingRepository, times(2)).findById(anyLong());
+        verify(bookingRepository, times(1)).findById(anyLong());
         assertEquals(bookingDto, result);
     }
 
@@ -297,7 +351,7 @@ public class BookingServiceTest {
     void getBookingCurrentUserTest_whenStateAll_thenBookings() {
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(owner));
 
-        List<BookingDto> result = bookingServiceImpl.getBookingCurrentUser(owner.getId(), BookingState.ALL.toString(), from, size);
+        List<BookingShortDto> result = bookingServiceImpl.getBookingCurrentUser(owner.getId(), BookingState.ALL.toString(), from, size);
 
         verify(bookingRepository).findAllBookingsForUser(any(), any());
         assertEquals(new ArrayList<>(), result);
@@ -307,7 +361,7 @@ public class BookingServiceTest {
     void getBookingCurrentUserTest_whenStateCurrent_thenBookings() {
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(owner));
 
-        List<BookingDto> result = bookingServiceImpl.getBookingCurrentUser(owner.getId(), BookingState.CURRENT.toString(), from, size);
+        List<BookingShortDto> result = bookingServiceImpl.getBookingCurrentUser(owner.getId(), BookingState.CURRENT.toString(), from, size);
 
         verify(bookingRepository).findCurrentBookingsForUser(any(), any(), any(), any());
         assertEquals(new ArrayList<>(), result);
@@ -317,7 +371,7 @@ public class BookingServiceTest {
     void getBookingCurrentUserTest_whenStatePast_thenBookings() {
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(owner));
 
-        List<BookingDto> result = bookingServiceImpl.getBookingCurrentUser(owner.getId(), BookingState.PAST.toString(), from, size);
+        List<BookingShortDto> result = bookingServiceImpl.getBookingCurrentUser(owner.getId(), BookingState.PAST.toString(), from, size);
 
         verify(bookingRepository).findPastBookingsForUser(any(), any(), any());
         assertEquals(new ArrayList<>(), result);
@@ -327,7 +381,7 @@ public class BookingServiceTest {
     void getBookingCurrentUserTest_whenStateFuture_thenBookings() {
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(owner));
 
-        List<BookingDto> result = bookingServiceImpl.getBookingCurrentUser(owner.getId(), BookingState.FUTURE.toString(), from, size);
+        List<BookingShortDto> result = bookingServiceImpl.getBookingCurrentUser(owner.getId(), BookingState.FUTURE.toString(), from, size);
 
         verify(bookingRepository).findFutureBookingsForUser(any(), any(), any());
         assertEquals(new ArrayList<>(), result);
@@ -337,7 +391,7 @@ public class BookingServiceTest {
     void getBookingCurrentUserTest_whenStateWaiting_thenBookings() {
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(owner));
 
-        List<BookingDto> result = bookingServiceImpl.getBookingCurrentUser(owner.getId(), BookingState.WAITING.toString(), from, size);
+        List<BookingShortDto> result = bookingServiceImpl.getBookingCurrentUser(owner.getId(), BookingState.WAITING.toString(), from, size);
 
         verify(bookingRepository).findWaitingOrRejectedBookingsForUser(any(), any(), any());
         assertEquals(new ArrayList<>(), result);
@@ -347,7 +401,7 @@ public class BookingServiceTest {
     void getBookingCurrentUserTest_whenStateRejected_thenBookings() {
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(owner));
 
-        List<BookingDto> result = bookingServiceImpl.getBookingCurrentUser(owner.getId(), BookingState.REJECTED.toString(), from, size);
+        List<BookingShortDto> result = bookingServiceImpl.getBookingCurrentUser(owner.getId(), BookingState.REJECTED.toString(), from, size);
 
         verify(bookingRepository).findWaitingOrRejectedBookingsForUser(any(), any(), any());
         assertEquals(new ArrayList<>(), result);
@@ -365,9 +419,9 @@ public class BookingServiceTest {
     void getBookingItemsCurrentUserTest_whenStateAll_thenBookings() {
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(owner));
 
-        List<BookingDto> result = bookingServiceImpl.getBookingForItemsCurrentUser(owner.getId(), BookingState.ALL.toString(), from, size);
+        List<BookingShortDto> result = bookingServiceImpl.getBookingForItemsCurrentUser(owner.getId(), BookingState.ALL.toString(), from, size);
 
-        verify(bookingRepository).findAllBookingsForItems(any(), any());
+        verify(bookingRepository).findAllBookingsForOwner(any(), any());
         assertEquals(new ArrayList<>(), result);
     }
 
@@ -375,9 +429,9 @@ public class BookingServiceTest {
     void getBookingItemsCurrentUserTest_whenStateCurrent_thenBookings() {
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(owner));
 
-        List<BookingDto> result = bookingServiceImpl.getBookingForItemsCurrentUser(owner.getId(), BookingState.CURRENT.toString(), from, size);
+        List<BookingShortDto> result = bookingServiceImpl.getBookingForItemsCurrentUser(owner.getId(), BookingState.CURRENT.toString(), from, size);
 
-        verify(bookingRepository).findCurrentBookingsForItems(any(), any(), any(), any());
+        verify(bookingRepository).findCurrentBookingsForOwner(any(), any(), any(), any());
         assertEquals(new ArrayList<>(), result);
     }
 
@@ -385,9 +439,9 @@ public class BookingServiceTest {
     void getBookingItemsCurrentUserTest_whenStatePast_thenBookings() {
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(owner));
 
-        List<BookingDto> result = bookingServiceImpl.getBookingForItemsCurrentUser(owner.getId(), BookingState.PAST.toString(), from, size);
+        List<BookingShortDto> result = bookingServiceImpl.getBookingForItemsCurrentUser(owner.getId(), BookingState.PAST.toString(), from, size);
 
-        verify(bookingRepository).findPastBookingsForItems(any(), any(), any());
+        verify(bookingRepository).findPastBookingsForOwner(any(), any(), any());
         assertEquals(new ArrayList<>(), result);
     }
 
@@ -395,9 +449,9 @@ public class BookingServiceTest {
     void getBookingItemsCurrentUserTest_whenStateFuture_thenBookings() {
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(owner));
 
-        List<BookingDto> result = bookingServiceImpl.getBookingForItemsCurrentUser(owner.getId(), BookingState.FUTURE.toString(), from, size);
+        List<BookingShortDto> result = bookingServiceImpl.getBookingForItemsCurrentUser(owner.getId(), BookingState.FUTURE.toString(), from, size);
 
-        verify(bookingRepository).findFutureBookingsForItems(any(), any(), any());
+        verify(bookingRepository).findFutureBookingsForOwner(any(), any(), any());
         assertEquals(new ArrayList<>(), result);
     }
 
@@ -405,9 +459,9 @@ public class BookingServiceTest {
     void getBookingItemsCurrentUserTest_whenStateWaiting_thenBookings() {
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(owner));
 
-        List<BookingDto> result = bookingServiceImpl.getBookingForItemsCurrentUser(owner.getId(), BookingState.WAITING.toString(), from, size);
+        List<BookingShortDto> result = bookingServiceImpl.getBookingForItemsCurrentUser(owner.getId(), BookingState.WAITING.toString(), from, size);
 
-        verify(bookingRepository).findWaitingOrRejectedBookingsForItems(any(), any(), any());
+        verify(bookingRepository).findWaitingOrRejectedBookingsForOwner(any(), any(), any());
         assertEquals(new ArrayList<>(), result);
     }
 
@@ -415,9 +469,80 @@ public class BookingServiceTest {
     void getBookingItemsCurrentUserTest_whenStateRejected_thenBookings() {
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(owner));
 
-        List<BookingDto> result = bookingServiceImpl.getBookingForItemsCurrentUser(owner.getId(), BookingState.REJECTED.toString(), from, size);
+        List<BookingShortDto> result = bookingServiceImpl.getBookingForItemsCurrentUser(owner.getId(), BookingState.REJECTED.toString(), from, size);
 
-        verify(bookingRepository).findWaitingOrRejectedBookingsForItems(any(), any(), any());
+        verify(bookingRepository).findWaitingOrRejectedBookingsForOwner(any(), any(), any());
         assertEquals(new ArrayList<>(), result);
     }
+
+    @Test
+    void getBookingCurrentUserAfterTest_whenCursorPresent_thenSeekFromCursor() {
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(owner));
+        KeysetCursor cursor = new KeysetCursor(bookingDto.getStart(), bookingDto.getId());
+
+        List<BookingShortDto> result = bookingServiceImpl.getBookingCurrentUserAfter(owner.getId(), BookingState.PAST.toString(), cursor.encode(), size);
+
+        verify(bookingRepository).findPastBookingsForUserAfter(any(), any(), eq(bookingDto.getStart()), eq(bookingDto.getId()), eq(PageRequest.of(0, size)));
+        assertEquals(new ArrayList<>(), result);
+    }
+
+    @Test
+    void getBookingItemsCurrentUserAfterTest_whenCursorEmpty_thenFromFirst() {
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(owner));
+
+        bookingServiceImpl.getBookingForItemsCurrentUserAfter(owner.getId(), BookingState.ALL.toString(), "", size);
+
+        verify(bookingRepository).findAllBookingsForOwner(any(), eq(PageRequest.of(0, size)));
+    }
+
+    @Test
+    void getBookingCurrentUserAfterTest_whenCursorIllegal_thenThrowException() {
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(owner));
+
+        assertThrows(ValidationException.class,
+                () -> bookingServiceImpl.getBookingCurrentUserAfter(userId, "ALL", "not-a-cursor", size));
+    }
+
+    @Test
+    void approvedBookingTest_whenOverlappingApprovedConcurrently_thenOnlyOneApproved() throws InterruptedException {
+        Map<Long, Booking> bookings = new ConcurrentHashMap<>();
+        LocalDateTime start = LocalDateTime.now().plus(1, ChronoUnit.DAYS);
+        for (long id = 1; id <= 2; id++) {
+            bookings.put(id, Booking.builder().id(id).item(item).booker(booker).status(BookingStatus.WAITING)
+                    .start(start).end(start.plus(id, ChronoUnit.DAYS)).build());
+        }
+        when(bookingRepository.findById(anyLong())).thenAnswer(input -> Optional.ofNullable(bookings.get((Long) input.getArgument(0)))
+                .map(b -> Booking.builder().id(b.getId()).item(b.getItem()).booker(b.getBooker()).status(b.getStatus())
+                        .start(b.getStart()).end(b.getEnd()).build()));
+        when(bookingRepository.isItemBookedBetween(anyLong(), any(), any(), any())).thenAnswer(input -> bookings.values().stream()
+                .anyMatch(b -> b.getStatus().equals(input.getArgument(3))
+                        && b.getStart().isBefore(input.getArgument(2)) && b.getEnd().isAfter(input.getArgument(1))));
+        when(bookingRepository.save(any())).thenAnswer(input -> {
+            Booking saved = input.getArgument(0);
+            bookings.put(saved.getId(), saved);
+            return saved;
+        });
+        int threads = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch ready = new CountDownLatch(1);
+        AtomicInteger approvedCount = new AtomicInteger();
+        for (int i = 0; i < threads; i++) {
+            long id = i % 2 + 1;
+            executor.submit(() -> {
+                ready.await();
+                try {
+                    bookingServiceImpl.approveOrRejectBooking(owner.getId(), id, true);
+                    approvedCount.incrementAndGet();
+                } catch (ValidationException | IsAlreadyDoneException ignored) {
+                }
+                return null;
+            });
+        }
+        ready.countDown();
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+
+        assertEquals(1, approvedCount.get());
+        assertEquals(1, bookings.values().stream().filter(b -> b.getStatus().equals(BookingStatus.APPROVED)).count());
+    }
 }
@@ -0,0 +1,121 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import ru.practicum.shareit.booking.dto.BookingPeriodCountView;
+import ru.practicum.shareit.booking.dto.BookingStatusCountView;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class BookingStateCountersTest {
+    @Mock
+    BookingRepository bookingRepository;
+    BookingStateCounters bookingStateCounters;
+    final LocalDateTime now = LocalDateTime.now();
+    final User booker = User.builder().id(1L).build();
+    final User owner = User.builder().id(2L).build();
+
+    @BeforeEach
+    void beforeEach() {
+        bookingStateCounters = new BookingStateCounters(bookingRepository, 1);
+        List<BookingStatusCountView> statuses = List.of(
+                statusCount(BookingStatus.APPROVED, 2L),
+                statusCount(BookingStatus.WAITING, 1L),
+                statusCount(BookingStatus.REJECTED, 1L));
+        List<BookingPeriodCountView> periods = List.of(
+                periodCount(now.minusDays(1), now.plusDays(1)),
+                periodCount(now.plusHours(1), now.plusDays(2)),
+                periodCount(now.plusDays(3), now.plusDays(4)));
+        when(bookingRepository.countBookingStatusesForUser(any())).thenReturn(statuses);
+        when(bookingRepository.countBookingStatusesForOwner(any())).thenReturn(statuses);
+        when(bookingRepository.countUnfinishedBookingPeriodsForUser(any(), any())).thenReturn(periods);
+        when(bookingRepository.countUnfinishedBookingPeriodsForOwner(any(), any())).thenReturn(periods);
+    }
+
+    @Test
+    void countForUserTest_thenEveryState() {
+        Map<BookingState, Long> counts = bookingStateCounters.countForUser(booker, now);
+
+        assertEquals(4L, counts.get(BookingState.ALL));
+        assertEquals(1L, counts.get(BookingState.CURRENT));
+        assertEquals(1L, counts.get(BookingState.PAST));
+        assertEquals(2L, counts.get(BookingState.FUTURE));
+        assertEquals(1L, counts.get(BookingState.WAITING));
+        assertEquals(1L, counts.get(BookingState.REJECTED));
+    }
+
+    @Test
+    void countForUserTest_whenTimePasses_thenBucketsAdvance() {
+        bookingStateCounters.countForUser(booker, now);
+
+        Map<BookingState, Long> counts = bookingStateCounters.countForUser(booker, now.plusDays(1).plusHours(1));
+
+        assertEquals(2L, counts.get(BookingState.PAST));
+        assertEquals(1L, counts.get(BookingState.CURRENT));
+        assertEquals(1L, counts.get(BookingState.FUTURE));
+        verify(bookingRepository, times(1)).countBookingStatusesForUser(any());
+        verify(bookingRepository, times(1)).countUnfinishedBookingPeriodsForUser(any(), any());
+    }
+
+    @Test
+    void onCreatedTest_thenBookerAndOwnerCountersReloaded() {
+        bookingStateCounters.countForUser(booker, now);
+        bookingStateCounters.countForOwner(owner, now);
+        Booking booking = Booking.builder().id(5L).status(BookingStatus.WAITING)
+                .start(now.plusDays(5)).end(now.plusDays(6))
+                .booker(booker).item(Item.builder().id(1L).owner(owner).build()).build();
+
+        bookingStateCounters.onCreated(booking);
+        bookingStateCounters.countForUser(booker, now);
+        bookingStateCounters.countForOwner(owner, now);
+
+        verify(bookingRepository, times(2)).countBookingStatusesForUser(any());
+        verify(bookingRepository, times(2)).countBookingStatusesForOwner(any());
+    }
+
+    @Test
+    void countForUserTest_whenMoreUsersThanMaxSize_thenEldestEvicted() {
+        bookingStateCounters.countForUser(booker, now);
+        bookingStateCounters.countForUser(owner, now);
+
+        bookingStateCounters.countForUser(booker, now);
+
+        verify(bookingRepository, times(3)).countBookingStatusesForUser(any());
+    }
+
+    private BookingStatusCountView statusCount(BookingStatus status, long count) {
+        BookingStatusCountView view = mock(BookingStatusCountView.class);
+        when(view.getStatus()).thenReturn(status);
+        when(view.getCount()).thenReturn(count);
+        return view;
+    }
+
+    private BookingPeriodCountView periodCount(LocalDateTime start, LocalDateTime end) {
+        BookingPeriodCountView view = mock(BookingPeriodCountView.class);
+        when(view.getStartDate()).thenReturn(start);
+        when(view.getEndDate()).thenReturn(end);
+        when(view.getCount()).thenReturn(1L);
+        return view;
+    }
+}
@@ -0,0 +1,113 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import ru.practicum.shareit.booking.dto.ItemBookingView;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class LastAndNextBookingRegistryTest {
+    @Mock
+    BookingRepository bookingRepository;
+    LastAndNextBookingRegistry lastAndNextBookingRegistry;
+    final long itemId = 1L;
+    final LocalDateTime now = LocalDateTime.now();
+    final List<Long> itemIds = List.of(itemId);
+
+    @BeforeEach
+    void beforeEach() {
+        lastAndNextBookingRegistry = new LastAndNextBookingRegistry(bookingRepository, 1);
+        ItemBookingView last = view(itemId, 1L, now.minusDays(1));
+        ItemBookingView next = view(itemId, 2L, now.plusHours(1));
+        when(bookingRepository.findLastBookings(any(), any(), any())).thenReturn(List.of(last));
+        when(bookingRepository.findNextBookings(any(), any(), any())).thenReturn(List.of(next));
+    }
+
+    @Test
+    void findTest_whenRepeated_thenLoadedOnce() {
+        assertEquals(1L, lastAndNextBookingRegistry.findLastBookings(itemIds, now).get(itemId).getId());
+        assertEquals(2L, lastAndNextBookingRegistry.findNextBookings(itemIds, now).get(itemId).getId());
+
+        verify(bookingRepository, times(1)).findLastBookings(any(), any(), any());
+        verify(bookingRepository, times(1)).findNextBookings(any(), any(), any());
+    }
+
+    @Test
+    void advanceTest_whenNextBookingStarted_thenBecomesLastAndOnlyNextReloaded() {
+        lastAndNextBookingRegistry.findLastBookings(itemIds, now);
+        ItemBookingView later = view(itemId, 3L, now.plusDays(1));
+        when(bookingRepository.findNextBookings(any(), any(), any())).thenReturn(List.of(later));
+
+        lastAndNextBookingRegistry.advance(now.plusHours(2));
+
+        assertEquals(2L, lastAndNextBookingRegistry.findLastBookings(itemIds, now.plusHours(2)).get(itemId).getId());
+        assertEquals(3L, lastAndNextBookingRegistry.findNextBookings(itemIds, now.plusHours(2)).get(itemId).getId());
+        verify(bookingRepository, times(1)).findLastBookings(any(), any(), any());
+        verify(bookingRepository, times(2)).findNextBookings(any(), any(), any());
+    }
+
+    @Test
+    void findTest_whenMoreItemsThanMaxSize_thenEldestEvicted() {
+        lastAndNextBookingRegistry.findLastBookings(itemIds, now);
+        lastAndNextBookingRegistry.findLastBookings(List.of(2L), now);
+
+        lastAndNextBookingRegistry.findLastBookings(itemIds, now);
+
+        verify(bookingRepository, times(3)).findLastBookings(any(), any(), any());
+    }
+
+    @Test
+    void onStatusChangedTest_whenApprovedEarlier_thenBecomesNext() {
+        lastAndNextBookingRegistry.findNextBookings(itemIds, now);
+
+        lastAndNextBookingRegistry.onStatusChanged(booking(4L, now.plusMinutes(30), BookingStatus.APPROVED));
+
+        assertEquals(4L, lastAndNextBookingRegistry.findNextBookings(itemIds, now).get(itemId).getId());
+    }
+
+    @Test
+    void onStatusChangedTest_whenRejected_thenReloaded() {
+        lastAndNextBookingRegistry.findNextBookings(itemIds, now);
+        when(bookingRepository.findNextBookings(any(), any(), any())).thenReturn(List.of());
+
+        lastAndNextBookingRegistry.onStatusChanged(booking(2L, now.plusHours(1), BookingStatus.REJECTED));
+
+        assertNull(lastAndNextBookingRegistry.findNextBookings(itemIds, now).get(itemId));
+        verify(bookingRepository, times(2)).findNextBookings(any(), any(), any());
+    }
+
+    private ItemBookingView view(long itemId, long id, LocalDateTime start) {
+        ItemBookingView view = mock(ItemBookingView.class);
+        when(view.getItemId()).thenReturn(itemId);
+        when(view.getId()).thenReturn(id);
+        when(view.getBookerId()).thenReturn(5L);
+        when(view.getStartDate()).thenReturn(start);
+        return view;
+    }
+
+    private Booking booking(long id, LocalDateTime start, BookingStatus status) {
+        return Booking.builder().id(id).start(start).end(start.plusDays(1)).status(status)
+                .item(Item.builder().id(itemId).build()).booker(User.builder().id(5L).build()).build();
+    }
+}
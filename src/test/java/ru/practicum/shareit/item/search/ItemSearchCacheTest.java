@@ -0,0 +1,68 @@
+package ru.practicum.shareit.item.search;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ItemSearchCacheTest {
+    final AtomicLong ticker = new AtomicLong();
+    SimpleMeterRegistry meterRegistry;
+    ItemSearchCache itemSearchCache;
+
+    @BeforeEach
+    void beforeEach() {
+        meterRegistry = new SimpleMeterRegistry();
+        itemSearchCache = new ItemSearchCache(meterRegistry, 2, 60, ticker::get);
+    }
+
+    @Test
+    void getTest_whenPresent_thenHit() {
+        itemSearchCache.put("дрель", 0, 10, List.of(1L, 2L));
+
+        assertEquals(List.of(1L, 2L), itemSearchCache.get("дрель", 0, 10));
+        assertNull(itemSearchCache.get("дрель", 10, 10));
+        assertEquals(1, meterRegistry.counter("shareit.items.search.cache", "result", "hit").count());
+        assertEquals(1, meterRegistry.counter("shareit.items.search.cache", "result", "miss").count());
+    }
+
+    @Test
+    void getTest_whenExpired_thenMiss() {
+        itemSearchCache.put("дрель", 0, 10, List.of(1L));
+        ticker.addAndGet(TimeUnit.SECONDS.toNanos(61));
+
+        assertNull(itemSearchCache.get("дрель", 0, 10));
+        assertEquals(0, itemSearchCache.size());
+    }
+
+    @Test
+    void putTest_whenFull_thenLeastRecentlyUsedEvicted() {
+        itemSearchCache.put("дрель", 0, 10, List.of(1L));
+        itemSearchCache.put("палатка", 0, 10, List.of(2L));
+        itemSearchCache.get("дрель", 0, 10);
+        itemSearchCache.put("пила", 0, 10, List.of(3L));
+
+        assertEquals(List.of(1L), itemSearchCache.get("дрель", 0, 10));
+        assertNull(itemSearchCache.get("палатка", 0, 10));
+    }
+
+    @Test
+    void invalidateTest_whenQueryAffected_thenRemoved() {
+        itemSearchCache.put("дрель", 0, 10, List.of(1L));
+        itemSearchCache.put("палатка", 0, 10, List.of(2L));
+
+        itemSearchCache.invalidate(query -> "дрель ударная".contains(query));
+
+        assertNull(itemSearchCache.get("дрель", 0, 10));
+        assertEquals(List.of(2L), itemSearchCache.get("палатка", 0, 10));
+    }
+}
@@ -0,0 +1,139 @@
+package ru.practicum.shareit.item.search;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ItemSearchIndexTest {
+    @Mock
+    ItemRepository itemRepository;
+    ItemSearchIndex itemSearchIndex;
+    ItemSearchCache itemSearchCache;
+
+    @BeforeEach
+    void beforeEach() {
+        itemSearchCache = new ItemSearchCache(new SimpleMeterRegistry(), 100, 60);
+        itemSearchIndex = new ItemSearchIndex(itemRepository, itemSearchCache);
+        when(itemRepository.findAvailableItems(any(Pageable.class))).thenReturn(new PageImpl<>(List.of(
+                item(1L, "Отвёртка", "Аккумуляторная отвёртка", true),
+                item(2L, "Дрель", "Простая дрель", true),
+                item(3L, "Аккумуляторная дрель", "Аккумуляторная дрель + аккумулятор", true))));
+        itemSearchIndex.rebuild();
+    }
+
+    @Test
+    void searchTest_whenInfix_thenMatchesLikeSemantics() {
+        assertEquals(List.of(3L, 1L), itemSearchIndex.search("аККУМ", 0, 10));
+        assertEquals(List.of(3L), itemSearchIndex.search("ная дре", 0, 10));
+        assertEquals(List.of(), itemSearchIndex.search("дрель акк", 0, 10));
+    }
+
+    @Test
+    void searchTest_whenShorterThanTrigram_thenMatchesLikeSemantics() {
+        assertEquals(List.of(3L, 1L), itemSearchIndex.search("ак", 0, 10));
+        assertEquals(List.of(3L), itemSearchIndex.search("+", 0, 10));
+    }
+
+    @Test
+    void searchTest_whenShortQueryAtEndOfText_thenFound() {
+        assertEquals(List.of(2L, 3L), itemSearchIndex.search("ль", 0, 10));
+        assertEquals(List.of(2L, 3L), itemSearchIndex.search("ь", 0, 10));
+    }
+
+    @Test
+    void postingsTest_whenIdsAddedAndRemoved_thenKeptSorted() {
+        long[] itemIds = ItemSearchIndex.withId(ItemSearchIndex.withId(new long[]{1L, 5L}, 3L), 5L);
+
+        assertArrayEquals(new long[]{1L, 3L, 5L}, itemIds);
+        assertArrayEquals(new long[]{1L, 5L}, ItemSearchIndex.withoutId(itemIds, 3L));
+        assertArrayEquals(new long[]{3L, 5L}, ItemSearchIndex.intersect(itemIds, new long[]{2L, 3L, 5L}));
+    }
+
+    @Test
+    void searchTest_whenTrigramMissing_thenEmpty() {
+        assertEquals(List.of(), itemSearchIndex.search("пылесос", 0, 10));
+    }
+
+    @Test
+    void searchTest_whenNameAndWordMatch_thenRankedFirst() {
+        assertEquals(List.of(2L, 3L), itemSearchIndex.search("дрель", 0, 10));
+    }
+
+    @Test
+    void searchTest_whenPaged_thenOffsetBySize() {
+        assertEquals(List.of(3L), itemSearchIndex.search("дрель", 1, 1));
+    }
+
+    @Test
+    void indexTest_whenItemUpdated_thenOldTextForgotten() {
+        itemSearchIndex.index(item(2L, "Пила", "Ручная пила", true));
+
+        assertEquals(List.of(3L), itemSearchIndex.search("дрель", 0, 10));
+        assertEquals(List.of(2L), itemSearchIndex.search("пил", 0, 10));
+    }
+
+    @Test
+    void indexTest_whenItemBecomesUnavailable_thenRemoved() {
+        itemSearchIndex.index(item(2L, "Дрель", "Простая дрель", false));
+
+        assertEquals(List.of(3L), itemSearchIndex.search("дрель", 0, 10));
+        assertEquals(List.of(), itemSearchIndex.search("пр", 0, 10));
+    }
+
+    @Test
+    void indexTest_whenItemBecomesAvailable_thenFound() {
+        itemSearchIndex.index(item(4L, "Дрель ударная", "Починена", true));
+
+        assertEquals(List.of(2L, 3L, 4L), itemSearchIndex.search("дрель", 0, 10));
+    }
+
+    @Test
+    void searchTest_whenRepeated_thenServedFromCache() {
+        itemSearchIndex.search("дрель", 0, 10);
+        itemSearchIndex.search("ДРЕЛЬ", 0, 10);
+
+        assertEquals(1, itemSearchCache.size());
+    }
+
+    @Test
+    void indexTest_whenItemChanged_thenOnlyAffectedQueriesInvalidated() {
+        itemSearchIndex.search("дрель", 0, 10);
+        itemSearchIndex.search("отвёрт", 0, 10);
+
+        itemSearchIndex.index(item(4L, "Дрель ударная", "Починена", true));
+
+        assertEquals(1, itemSearchCache.size());
+        assertEquals(List.of(2L, 3L, 4L), itemSearchIndex.search("дрель", 0, 10));
+    }
+
+    @Test
+    void indexTest_whenItemLosesMatch_thenQueryInvalidated() {
+        assertEquals(List.of(2L, 3L), itemSearchIndex.search("дрель", 0, 10));
+
+        itemSearchIndex.index(item(2L, "Пила", "Ручная пила", true));
+
+        assertEquals(List.of(3L), itemSearchIndex.search("дрель", 0, 10));
+    }
+
+    private Item item(long id, String name, String description, boolean available) {
+        return Item.builder().id(id).name(name).description(description).available(available).build();
+    }
+}
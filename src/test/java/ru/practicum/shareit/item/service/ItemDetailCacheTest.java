@@ -0,0 +1,81 @@
+package ru.practicum.shareit.item.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.dto.LastAndNextBookingDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ItemDetailCacheTest {
+    final long itemId = 1L;
+    final long ownerId = 2L;
+    final LocalDateTime now = LocalDateTime.now();
+    ItemDetailCache itemDetailCache;
+    ItemDto itemDto;
+
+    @BeforeEach
+    void beforeEach() {
+        itemDetailCache = new ItemDetailCache(new SimpleMeterRegistry(), 10);
+        itemDto = ItemDto.builder().id(itemId).name("itemName").description("itemDesc").available(true)
+                .lastBooking(LastAndNextBookingDto.builder().id(1L).bookerId(3L).build())
+                .nextBooking(LastAndNextBookingDto.builder().id(2L).bookerId(3L).build())
+                .comments(new ArrayList<>())
+                .build();
+    }
+
+    @Test
+    void getTest_whenOwner_thenBookingsPresent() {
+        itemDetailCache.put(itemId, ownerId, itemDto, now.plusDays(1), itemDetailCache.generation());
+
+        assertEquals(itemDto, itemDetailCache.get(itemId, ownerId, now));
+    }
+
+    @Test
+    void getTest_whenNotOwner_thenBookingsHidden() {
+        itemDetailCache.put(itemId, ownerId, itemDto, now.plusDays(1), itemDetailCache.generation());
+
+        ItemDto result = itemDetailCache.get(itemId, 3L, now);
+
+        assertNull(result.getLastBooking());
+        assertNull(result.getNextBooking());
+        assertEquals("itemName", result.getName());
+    }
+
+    @Test
+    void getTest_whenNextBookingStarted_thenMiss() {
+        itemDetailCache.put(itemId, ownerId, itemDto, now.plusDays(1), itemDetailCache.generation());
+
+        assertNull(itemDetailCache.get(itemId, ownerId, now.plusDays(1)));
+        assertEquals(0, itemDetailCache.size());
+    }
+
+    @Test
+    void putTest_whenInvalidatedWhileLoading_thenNotCached() {
+        long generation = itemDetailCache.generation();
+        itemDetailCache.invalidate(itemId);
+
+        itemDetailCache.put(itemId, ownerId, itemDto, null, generation);
+
+        assertNull(itemDetailCache.get(itemId, ownerId, now));
+    }
+
+    @Test
+    void invalidateTest_whenItemChanged_thenMiss() {
+        itemDetailCache.put(itemId, ownerId, itemDto, null, itemDetailCache.generation());
+        itemDetailCache.put(2L, ownerId, itemDto, null, itemDetailCache.generation());
+
+        itemDetailCache.invalidate(itemId);
+
+        assertNull(itemDetailCache.get(itemId, ownerId, now));
+        assertEquals(1, itemDetailCache.size());
+    }
+}
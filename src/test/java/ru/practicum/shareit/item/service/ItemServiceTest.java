@@ -6,14 +6,17 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 import ru.practicum.shareit.TestHelper;
+import ru.practicum.shareit.booking.dto.ItemBookingView;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.LastAndNextBookingRegistry;
 import ru.practicum.shareit.exception.ForbiddenException;
 import ru.practicum.shareit.exception.InternalServerException;
 import ru.practicum.shareit.exception.NotFoundException;
@@ -23,15 +26,22 @@ import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.item_request.model.ItemRequest;
 import ru.practicum.shareit.item_request.repository.ItemRequestRepository;
+import ru.practicum.shareit.item_request.service.ItemRequestFeed;
+import ru.practicum.shareit.item_request.service.ItemRequestMatcher;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
@@ -51,6 +61,16 @@ public class ItemServiceTest {
     BookingRepository bookingRepository;
     @Mock
     CommentRepository commentRepository;
+    @Mock
+    ItemSearchIndex itemSearchIndex;
+    @Mock
+    ItemDetailCache itemDetailCache;
+    @Mock
+    LastAndNextBookingRegistry lastAndNextBookingRegistry;
+    @Mock
+    ItemRequestFeed itemRequestFeed;
+    @Mock
+    ItemRequestMatcher itemRequestMatcher;
 
     @InjectMocks
     ItemServiceImpl itemServiceimpl;
@@ -83,6 +103,7 @@ public class ItemServiceTest {
         requestBodyItemDto = RequestBodyItemDto.builder().name(item.getName())
                 .description(item.getDescription()).available(item.getAvailable()).build();
         when(itemRequestRepository.save(any())).thenAnswer(input -> input.getArguments()[0]);
+        when(itemRepository.save(any())).thenAnswer(input -> input.getArguments()[0]);
     }
 
     @Test
@@ -95,6 +116,7 @@ public class ItemServiceTest {
         verify(itemRepository).save(captor.capture());
 
         Item savedItem = captor.getValue();
+        verify(itemSearchIndex).index(any());
         assertEquals(requestBodyItemDto.getName(), savedItem.getName());
         assertEquals(requestBodyItemDto.getDescription(), savedItem.getDescription());
         assertEquals(requestBodyItemDto.getAvailable(), savedItem.getAvailable());
@@ -285,7 +307,7 @@ public class ItemServiceTest {
     void addCommentTest_whenCommentCorrect_thenSave() {
         when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(author));
-        when(bookingRepository.findPastBookingsForUserAndItem(any(), any(), any(), any())).thenReturn(List.of(booking));
+        when(bookingRepository.existsByItemIdAndBookerIdAndStatusAndEndBefore(anyLong(), anyLong(), any(), any())).thenReturn(true);
         when(commentRepository.save(comment)).thenReturn(comment);
         CommentDto commentDto = itemServiceimpl.addNewComment(comment, userId, itemId);
 
@@ -308,6 +330,21 @@ public class ItemServiceTest {
         verify(itemRepository).save(any());
     }
 
+    @Test
+    void updateItemTest_whenRequestAnswered_thenMatcherNotifiedAfterSave() {
+        ItemRequest itemRequest = testHelper.getItemRequest();
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(owner));
+        when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
+        when(itemRequestRepository.findById(anyLong())).thenReturn(Optional.of(itemRequest));
+        requestBodyItemDto.setRequestId(itemRequest.getId());
+
+        itemServiceimpl.updateItem(itemId, requestBodyItemDto, owner.getId());
+
+        InOrder inOrder = inOrder(itemRepository, itemRequestMatcher);
+        inOrder.verify(itemRepository).save(any());
+        inOrder.verify(itemRequestMatcher).onItemRequestAnswered(itemRequest.getId());
+    }
+
     @Test
     void updateItemTest_whenUserMissing_thenThrowException() {
         long itemId = 1L;
@@ -349,10 +386,37 @@ public class ItemServiceTest {
 
         ItemDto result = itemServiceimpl.getItemById(itemId, userId);
 
-        verify(itemRepository, times(2)).findById(anyLong());
+        verify(itemRepository, times(1)).findById(anyLong());
+        assertEquals(itemDto, result);
+    }
+
+    @Test
+    void getItemByIdTest_whenCached_thenRepositoryNotCalled() {
+        when(itemDetailCache.get(eq(itemId), eq(userId), any())).thenReturn(itemDto);
+
+        ItemDto result = itemServiceimpl.getItemById(itemId, userId);
+
+        verify(itemRepository, never()).findById(anyLong());
         assertEquals(itemDto, result);
     }
 
+    @Test
+    void getItemByIdTest_whenNotOwner_thenCachedWithOwnerBookingsButReturnedWithout() {
+        ItemBookingView nextBooking = mock(ItemBookingView.class);
+        LocalDateTime nextStart = LocalDateTime.now().plusDays(1);
+        when(nextBooking.getId()).thenReturn(5L);
+        when(nextBooking.getStartDate()).thenReturn(nextStart);
+        when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
+        when(lastAndNextBookingRegistry.findNextBookings(any(), any())).thenReturn(Map.of(itemId, nextBooking));
+        ArgumentCaptor<ItemDto> cachedItemDto = ArgumentCaptor.forClass(ItemDto.class);
+
+        ItemDto result = itemServiceimpl.getItemById(itemId, author.getId());
+
+        verify(itemDetailCache).put(eq(itemId), eq(owner.getId()), cachedItemDto.capture(), eq(nextStart), anyLong());
+        assertEquals(5L, cachedItemDto.getValue().getNextBooking().getId());
+        assertNull(result.getNextBooking());
+    }
+
     @Test
     void getItemByIdTest_whenItemNotFound_thenThrowException() {
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(owner));
@@ -372,6 +436,46 @@ public class ItemServiceTest {
         assertEquals(new ArrayList<>(), result);
     }
 
+    @Test
+    void getItemsTest_whenOwnerHasItems_thenBookingsLoadedOncePerPage() {
+        Item secondItem = Item.builder().id(2L).available(true).name("itemName2").description("itemDesc2").owner(owner).build();
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(owner));
+        when(itemRepository.findItemsForUserWithPage(any(), any())).thenReturn(List.of(item, secondItem));
+
+        List<ItemDto> result = itemServiceimpl.getAllItems(owner.getId(), 0, 10);
+
+        verify(lastAndNextBookingRegistry, times(1)).findLastBookings(eq(List.of(1L, 2L)), any());
+        verify(lastAndNextBookingRegistry, times(1)).findNextBookings(eq(List.of(1L, 2L)), any());
+        assertEquals(2, result.size());
+    }
+
+    @Test
+    void getItemsByTextTest_whenItemsHaveComments_thenCommentsGroupedByItem() {
+        Item secondItem = Item.builder().id(2L).available(true).name("itemName2").description("itemDesc2").owner(owner).build();
+        when(itemSearchIndex.search(anyString(), anyInt(), anyInt())).thenReturn(List.of(2L, 1L));
+        when(itemRepository.findItemsByIds(any())).thenReturn(List.of(item, secondItem));
+        when(commentRepository.findCommentsByItemIds(any())).thenReturn(List.of(comment));
+
+        List<ItemDto> result = itemServiceimpl.getItemByNameOrDescription("itemName", author.getId(), 0, 10);
+
+        verify(commentRepository, times(1)).findCommentsByItemIds(any());
+        assertEquals(List.of(2L, 1L), List.of(result.get(0).getId(), result.get(1).getId()));
+        assertEquals(new ArrayList<>(), result.get(0).getComments());
+        assertEquals(List.of(CommentDtoMapper.mapRow(comment)), result.get(1).getComments());
+    }
+
+    @Test
+    void getItemsByTextTest_whenIndexedItemMissing_thenRemovedAndPageRefilled() {
+        Item secondItem = Item.builder().id(2L).available(true).name("itemName2").description("itemDesc2").owner(owner).build();
+        when(itemSearchIndex.search(anyString(), anyInt(), anyInt())).thenReturn(List.of(3L, 1L), List.of(1L, 2L));
+        when(itemRepository.findItemsByIds(any())).thenReturn(List.of(item), List.of(item, secondItem));
+
+        List<ItemDto> result = itemServiceimpl.getItemByNameOrDescription("itemName", author.getId(), 0, 2);
+
+        verify(itemSearchIndex).remove(3L);
+        assertEquals(List.of(1L, 2L), List.of(result.get(0).getId(), result.get(1).getId()));
+    }
+
     @Test
     void getItemByIdTest_whenSizeIllegal_thenThrowException() {
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(owner));
@@ -393,7 +497,7 @@ public class ItemServiceTest {
 
         List<ItemDto> result = itemServiceimpl.getItemByNameOrDescription("itemName1", owner.getId(), 1, 1);
 
-        verify(itemRepository).findAvailableItemsByNameOrDescription(anyString(), any(), any());
+        verify(itemSearchIndex).search(anyString(), anyInt(), anyInt());
         assertEquals(new ArrayList<>(), result);
     }
 
@@ -1,6 +1,7 @@
 package ru.practicum.shareit.item_request.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import lombok.AccessLevel;
 import lombok.SneakyThrows;
 import lombok.experimental.FieldDefaults;
@@ -11,26 +12,37 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item_request.dto.ItemRequestDto;
 import ru.practicum.shareit.item_request.service.ItemRequestService;
+import ru.practicum.shareit.pagination.KeysetCursor;
 
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = ItemRequestController.class)
+@Import(SimpleMeterRegistry.class)
 @AutoConfigureMockMvc
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class ItemRequestControllerTest {
@@ -115,6 +127,108 @@ public class ItemRequestControllerTest {
         verify(itemRequestService).getOwnItemRequests(anyLong());
     }
 
+    @SneakyThrows
+    @Test
+    void getOwnItemRequestsTest_whenFromWithoutSize_thenBadRequest() {
+        when(itemRequestService.getOwnItemRequests(anyLong(), anyInt(), isNull()))
+                .thenThrow(new ValidationException("Параметр from передан без параметра size"));
+
+        mockMvc.perform(get(pathRequests).param("from", "10").header(headerUserValue, 1))
+                .andExpect(status().isBadRequest());
+
+        verify(itemRequestService, never()).getOwnItemRequests(anyLong());
+        verify(itemRequestService).getOwnItemRequests(1L, 10, null);
+    }
+
+    @SneakyThrows
+    @Test
+    void getOwnItemRequestsTest_whenSizePresent_thenPageWithoutNextCursor() {
+        LinkedMultiValueMap<String, String> requestParams = new LinkedMultiValueMap<>();
+        requestParams.add("from", "0");
+        requestParams.add("size", "1");
+        when(itemRequestService.getOwnItemRequests(anyLong(), anyInt(), anyInt())).thenReturn(List.of(itemRequestDtoCorrect));
+
+        String nextCursor = mockMvc.perform(get(pathRequests).params(requestParams).header(headerUserValue, 1))
+                .andExpect(status().is2xxSuccessful())
+                .andReturn()
+                .getResponse()
+                .getHeader("X-Next-Cursor");
+
+        verify(itemRequestService).getOwnItemRequests(1L, 0, 1);
+        assertNull(nextCursor);
+    }
+
+    @SneakyThrows
+    @Test
+    void getOwnItemRequestsTest_whenCursorPresent_thenPageAfterCursor() {
+        when(itemRequestService.getOwnItemRequestsAfter(anyLong(), anyString(), anyInt())).thenReturn(List.of(itemRequestDtoCorrect));
+
+        String nextCursor = mockMvc.perform(get(pathRequests).param("cursor", "").header(headerUserValue, 1))
+                .andExpect(status().is2xxSuccessful())
+                .andReturn()
+                .getResponse()
+                .getHeader("X-Next-Cursor");
+
+        verify(itemRequestService).getOwnItemRequestsAfter(1L, "", 10);
+        assertNull(nextCursor);
+    }
+
+    @SneakyThrows
+    @Test
+    void getOwnItemRequestsTest_whenCursorPageFull_thenNextCursor() {
+        when(itemRequestService.getOwnItemRequestsAfter(anyLong(), anyString(), anyInt())).thenReturn(List.of(itemRequestDtoCorrect));
+
+        String nextCursor = mockMvc.perform(get(pathRequests).param("cursor", "").param("size", "1").header(headerUserValue, 1))
+                .andExpect(status().is2xxSuccessful())
+                .andReturn()
+                .getResponse()
+                .getHeader("X-Next-Cursor");
+
+        assertEquals(new KeysetCursor(itemRequestDtoCorrect.getCreated(), itemRequestDtoCorrect.getId()).encode(), nextCursor);
+    }
+
+    @SneakyThrows
+    @Test
+    void streamOwnItemRequestsTest() {
+        when(itemRequestService.streamOwnItemRequests(anyLong())).thenReturn(Stream.of(itemRequestDtoCorrect, itemRequestDtoEmptyDesc));
+
+        MvcResult mvcResult = mockMvc.perform(get(pathRequests).param("stream", "true").header(headerUserValue, 1))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String result = mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn()
+                .getResponse()
+                .getContentAsString(StandardCharsets.UTF_8);
+
+        verify(itemRequestService).streamOwnItemRequests(anyLong());
+        assertEquals(objectMapper.writeValueAsString(itemRequestDtoCorrect) + "\n"
+                + objectMapper.writeValueAsString(itemRequestDtoEmptyDesc) + "\n", result);
+    }
+
+    @SneakyThrows
+    @Test
+    void subscribeToItemRequestsTest() {
+        when(itemRequestService.subscribeToItemRequests(anyLong())).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get(pathRequests + "/all/events").header(headerUserValue, 1))
+                .andExpect(request().asyncStarted());
+
+        verify(itemRequestService).subscribeToItemRequests(1L);
+    }
+
+    @SneakyThrows
+    @Test
+    void getSuggestedItemsTest() {
+        when(itemRequestService.getSuggestedItems(anyLong(), anyLong())).thenReturn(List.of());
+
+        mockMvc.perform(get(pathRequests + "/{requestId}/suggestions", 1).header(headerUserValue, 1))
+                .andExpect(status().is2xxSuccessful());
+
+        verify(itemRequestService).getSuggestedItems(1L, 1L);
+    }
+
     @SneakyThrows
     @Test
     void getItemRequestByIdTest() {
@@ -7,7 +7,18 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
 import ru.practicum.shareit.TestHelper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item_request.model.ItemRequest;
+import ru.practicum.shareit.item_request.model.ItemRequestSuggestion;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -16,6 +27,12 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 public class ItemRequestRepositoryTest {
     @Autowired
     ItemRequestRepository itemRequestRepository;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    ItemRepository itemRepository;
+    @Autowired
+    ItemRequestSuggestionRepository itemRequestSuggestionRepository;
     final TestHelper testHelper = new TestHelper();
 
     @BeforeEach
@@ -32,4 +49,42 @@ public class ItemRequestRepositoryTest {
     void saveItemRequestsTest() {
         assertEquals(itemRequestRepository.findAll().size(), 1);
     }
+
+    @Test
+    void findItemRequestsByAuthorTest_whenCursorPresent_thenOlderRequestsInOrder() {
+        User author = userRepository.save(User.builder().name("author").email("author@mail.ru").build());
+        LocalDateTime created = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        ItemRequest newest = itemRequestRepository.save(ItemRequest.builder().author(author).created(created)
+                .description("newest").build());
+        ItemRequest sameTime = itemRequestRepository.save(ItemRequest.builder().author(author).created(created)
+                .description("sameTime").build());
+        ItemRequest oldest = itemRequestRepository.save(ItemRequest.builder().author(author).created(created.minusDays(1))
+                .description("oldest").build());
+
+        List<ItemRequest> firstPage = itemRequestRepository.findItemRequestsByAuthor(author, PageRequest.of(0, 2));
+        List<ItemRequest> secondPage = itemRequestRepository.findItemRequestsByAuthorAfter(author,
+                sameTime.getCreated(), newest.getId(), PageRequest.of(0, 2));
+
+        assertEquals(List.of(sameTime, newest), firstPage);
+        assertEquals(List.of(oldest), secondPage);
+    }
+
+    @Test
+    void findOpenItemRequestsTest_whenAnswered_thenOnlySuggestionsRemainForOpen() {
+        User author = userRepository.save(User.builder().name("author").email("author@mail.ru").build());
+        User owner = userRepository.save(User.builder().name("owner").email("owner@mail.ru").build());
+        ItemRequest answered = itemRequestRepository.save(ItemRequest.builder().author(author)
+                .created(LocalDateTime.now()).description("answered").build());
+        ItemRequest open = itemRequestRepository.save(ItemRequest.builder().author(author)
+                .created(LocalDateTime.now()).description("open").build());
+        itemRepository.save(Item.builder().owner(owner).name("answer").description("answer").available(true)
+                .itemRequest(answered).build());
+        Item suggested = itemRepository.save(Item.builder().owner(owner).name("suggested").description("suggested")
+                .available(true).build());
+        itemRequestSuggestionRepository.save(ItemRequestSuggestion.builder().itemRequest(open).item(suggested)
+                .score(0.5).created(LocalDateTime.now()).build());
+
+        assertEquals(List.of(open), itemRequestRepository.findOpenItemRequests());
+        assertEquals(List.of(suggested), itemRequestSuggestionRepository.findSuggestedItems(open.getId()));
+    }
 }
@@ -0,0 +1,127 @@
+package ru.practicum.shareit.item_request.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.AccessLevel;
+import lombok.SneakyThrows;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.item_request.model.ItemRequest;
+import ru.practicum.shareit.user.model.User;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ItemRequestBroadcasterTest {
+    ItemRequestBroadcaster itemRequestBroadcaster;
+    final User author = User.builder().id(1L).name("author").email("author@mail.ru").build();
+    final long subscriberId = 2L;
+
+    @BeforeEach
+    void beforeEach() {
+        itemRequestBroadcaster = new ItemRequestBroadcaster(new SimpleMeterRegistry(), 0L, 2, 60_000L,
+                Executors.newSingleThreadExecutor());
+    }
+
+    @AfterEach
+    void afterEach() {
+        itemRequestBroadcaster.shutdown();
+    }
+
+    @SneakyThrows
+    @Test
+    void flushTest_whenRequestPublished_thenSentToOtherUsersOnly() {
+        SseEmitter subscriber = mock(SseEmitter.class);
+        SseEmitter authorEmitter = mock(SseEmitter.class);
+        itemRequestBroadcaster.subscribe(subscriberId, subscriber);
+        itemRequestBroadcaster.subscribe(author.getId(), authorEmitter);
+
+        itemRequestBroadcaster.publish(itemRequest(1L));
+        verify(subscriber, never()).send(any(SseEmitter.SseEventBuilder.class));
+        itemRequestBroadcaster.flush();
+
+        verify(subscriber, timeout(1000).times(1)).send(any(SseEmitter.SseEventBuilder.class));
+        verify(authorEmitter, never()).send(any(SseEmitter.SseEventBuilder.class));
+    }
+
+    @SneakyThrows
+    @Test
+    void publishTest_whenBufferFull_thenSubscriberDisconnected() {
+        SseEmitter subscriber = mock(SseEmitter.class);
+        itemRequestBroadcaster.subscribe(subscriberId, subscriber);
+
+        itemRequestBroadcaster.publish(itemRequest(1L));
+        itemRequestBroadcaster.publish(itemRequest(2L));
+        itemRequestBroadcaster.publish(itemRequest(3L));
+        itemRequestBroadcaster.flush();
+
+        verify(subscriber).complete();
+        verify(subscriber, never()).send(any(SseEmitter.SseEventBuilder.class));
+        assertEquals(0, itemRequestBroadcaster.subscriberCount());
+    }
+
+    @SneakyThrows
+    @Test
+    void flushTest_whenSendFails_thenSubscriberRemoved() {
+        SseEmitter subscriber = mock(SseEmitter.class);
+        doThrow(new IOException("Broken pipe")).when(subscriber).send(any(SseEmitter.SseEventBuilder.class));
+        itemRequestBroadcaster.subscribe(subscriberId, subscriber);
+
+        itemRequestBroadcaster.publish(itemRequest(1L));
+        itemRequestBroadcaster.flush();
+
+        verify(subscriber, timeout(1000)).completeWithError(any());
+        assertEquals(0, itemRequestBroadcaster.subscriberCount());
+    }
+
+    @SneakyThrows
+    @Test
+    void heartbeatTest_whenNoRequests_thenCommentSent() {
+        SseEmitter subscriber = mock(SseEmitter.class);
+        itemRequestBroadcaster.subscribe(subscriberId, subscriber);
+
+        itemRequestBroadcaster.flush();
+        itemRequestBroadcaster.heartbeat();
+
+        verify(subscriber, timeout(1000).times(1)).send(any(SseEmitter.SseEventBuilder.class));
+    }
+
+    @SneakyThrows
+    @Test
+    void flushTest_whenSendStalled_thenSubscriberRemovedWithoutBlocking() {
+        itemRequestBroadcaster.shutdown();
+        itemRequestBroadcaster = new ItemRequestBroadcaster(new SimpleMeterRegistry(), 0L, 2, 0L,
+                Executors.newSingleThreadExecutor());
+        SseEmitter subscriber = mock(SseEmitter.class);
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(input -> {
+            sending.countDown();
+            release.await();
+            return null;
+        }).when(subscriber).send(any(SseEmitter.SseEventBuilder.class));
+        itemRequestBroadcaster.subscribe(subscriberId, subscriber);
+
+        itemRequestBroadcaster.publish(itemRequest(1L));
+        itemRequestBroadcaster.flush();
+        sending.await();
+        itemRequestBroadcaster.publish(itemRequest(2L));
+        itemRequestBroadcaster.flush();
+
+        assertEquals(0, itemRequestBroadcaster.subscriberCount());
+        release.countDown();
+    }
+
+    private ItemRequest itemRequest(long id) {
+        return ItemRequest.builder().id(id).author(author).created(LocalDateTime.now()).description("itemRequestDesc").build();
+    }
+}
@@ -0,0 +1,123 @@
+package ru.practicum.shareit.item_request.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item_request.dto.ItemRequestDto;
+import ru.practicum.shareit.item_request.model.ItemRequest;
+import ru.practicum.shareit.item_request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ItemRequestFeedTest {
+    @Mock
+    ItemRequestRepository itemRequestRepository;
+    @Mock
+    ItemRepository itemRepository;
+    ItemRequestFeed itemRequestFeed;
+    final User author = User.builder().id(1L).name("author").email("author@mail.ru").build();
+    final User other = User.builder().id(2L).name("other").email("other@mail.ru").build();
+    final LocalDateTime now = LocalDateTime.now();
+    ItemRequest ownRequest;
+    ItemRequest otherRequest;
+
+    @BeforeEach
+    void beforeEach() {
+        itemRequestFeed = new ItemRequestFeed(itemRequestRepository, itemRepository, new SimpleMeterRegistry(), 3);
+        ownRequest = itemRequest(2L, author, now);
+        otherRequest = itemRequest(1L, other, now.minusHours(1));
+        when(itemRequestRepository.findNewestItemRequests(any())).thenReturn(List.of(ownRequest, otherRequest));
+        when(itemRepository.findItemsByRequestIds(any())).thenReturn(List.of(item(10L, otherRequest)));
+    }
+
+    @Test
+    void pageTest_whenFeedHasAllRequests_thenOwnRequestsSkipped() {
+        List<ItemRequestDto> result = itemRequestFeed.page(author.getId(), 0, 10);
+        itemRequestFeed.page(other.getId(), 0, 10);
+
+        assertEquals(1, result.size());
+        assertEquals(otherRequest.getId(), result.get(0).getId());
+        assertEquals(10L, result.get(0).getItems().get(0).getId());
+        verify(itemRequestRepository, times(1)).findNewestItemRequests(any());
+    }
+
+    @Test
+    void pageTest_whenOlderRequestsEvicted_thenDeepPageIsNull() {
+        itemRequestFeed.page(author.getId(), 0, 1);
+        itemRequestFeed.onItemRequestCreated(itemRequest(3L, other, now.plusMinutes(1)));
+        itemRequestFeed.onItemRequestCreated(itemRequest(4L, other, now.plusMinutes(2)));
+
+        assertEquals(List.of(4L, 3L), ids(itemRequestFeed.page(author.getId(), 0, 2)));
+        assertNull(itemRequestFeed.page(author.getId(), 2, 2));
+    }
+
+    @Test
+    void onItemRequestCreatedTest_whenOlderThanNewest_thenInsertedInOrder() {
+        itemRequestFeed.page(author.getId(), 0, 1);
+
+        itemRequestFeed.onItemRequestCreated(itemRequest(3L, other, now.minusMinutes(30)));
+
+        assertEquals(List.of(3L, 1L), ids(itemRequestFeed.page(author.getId(), 0, 2)));
+        verify(itemRequestRepository, times(1)).findNewestItemRequests(any());
+    }
+
+    @Test
+    void onItemRequestCreatedTest_whenFullAndOlderThanOldest_thenSkipped() {
+        itemRequestFeed.page(author.getId(), 0, 1);
+        itemRequestFeed.onItemRequestCreated(itemRequest(3L, other, now.minusMinutes(30)));
+
+        itemRequestFeed.onItemRequestCreated(itemRequest(4L, other, now.minusDays(1)));
+        itemRequestFeed.onItemRequestCreated(itemRequest(5L, other, now.minusMinutes(45)));
+
+        assertEquals(List.of(3L, 5L), ids(itemRequestFeed.page(author.getId(), 0, 2)));
+        assertNull(itemRequestFeed.page(author.getId(), 0, 3));
+        verify(itemRequestRepository, times(1)).findNewestItemRequests(any());
+    }
+
+    @Test
+    void onItemSavedTest_whenItemMovedToAnotherRequest_thenItemsUpdated() {
+        itemRequestFeed.page(author.getId(), 0, 1);
+
+        itemRequestFeed.onItemSaved(item(10L, ownRequest));
+
+        assertEquals(List.of(), itemRequestFeed.page(author.getId(), 0, 1).get(0).getItems());
+        assertEquals(10L, itemRequestFeed.page(other.getId(), 0, 1).get(0).getItems().get(0).getId());
+    }
+
+    private ItemRequest itemRequest(long id, User author, LocalDateTime created) {
+        return ItemRequest.builder().id(id).author(author).created(created).description("itemRequestDesc" + id).build();
+    }
+
+    private Item item(long id, ItemRequest itemRequest) {
+        return Item.builder().id(id).name("itemName").description("itemDesc").available(true)
+                .owner(author).itemRequest(itemRequest).build();
+    }
+
+    private List<Long> ids(List<ItemRequestDto> itemRequestsDto) {
+        List<Long> ids = new ArrayList<>();
+        for (ItemRequestDto itemRequestDto : itemRequestsDto) {
+            ids.add(itemRequestDto.getId());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,138 @@
+package ru.practicum.shareit.item_request.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item_request.model.ItemRequest;
+import ru.practicum.shareit.item_request.model.ItemRequestSuggestion;
+import ru.practicum.shareit.item_request.repository.ItemRequestRepository;
+import ru.practicum.shareit.item_request.repository.ItemRequestSuggestionRepository;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ItemRequestMatcherTest {
+    @Mock
+    ItemRequestRepository itemRequestRepository;
+    @Mock
+    ItemRepository itemRepository;
+    @Mock
+    ItemRequestSuggestionRepository itemRequestSuggestionRepository;
+    ItemRequestMatcher itemRequestMatcher;
+    final User author = User.builder().id(1L).name("author").email("author@mail.ru").build();
+    final User owner = User.builder().id(2L).name("owner").email("owner@mail.ru").build();
+    final ItemRequest drillRequest = ItemRequest.builder().id(1L).author(author).created(LocalDateTime.now())
+            .description("Нужна дрель").build();
+    final ItemRequest tentRequest = ItemRequest.builder().id(2L).author(author).created(LocalDateTime.now())
+            .description("Ищу палатку для похода").build();
+
+    @BeforeEach
+    void beforeEach() {
+        itemRequestMatcher = new ItemRequestMatcher(itemRequestRepository, itemRepository,
+                itemRequestSuggestionRepository, new SimpleMeterRegistry(), 1, 10, 0.5);
+        when(itemRequestRepository.findOpenItemRequests()).thenReturn(List.of(drillRequest, tentRequest));
+        when(itemRequestRepository.getReferenceById(anyLong()))
+                .thenAnswer(input -> ItemRequest.builder().id(input.getArgument(0)).build());
+        when(itemRepository.getReferenceById(anyLong()))
+                .thenAnswer(input -> Item.builder().id(input.getArgument(0)).build());
+        itemRequestMatcher.rebuild();
+    }
+
+    @Test
+    void stemsTest_whenWordForms_thenSameStem() {
+        assertEquals(ItemRequestMatcher.stems("дрель"), ItemRequestMatcher.stems("Дрели!"));
+        assertEquals(Set.of("пал"), ItemRequestMatcher.stems("пала, на"));
+    }
+
+    @Test
+    void matchTest_whenEnoughStemsMatched_thenScored() {
+        Map<Long, Double> matches = itemRequestMatcher.match(item(10L, owner, "Дрель", "Ударная дрель"));
+
+        assertEquals(Map.of(1L, 0.5), matches);
+    }
+
+    @Test
+    void matchTest_whenItemOwnerIsRequestAuthor_thenNoMatch() {
+        assertEquals(Map.of(), itemRequestMatcher.match(item(10L, author, "Дрель", "Ударная дрель")));
+    }
+
+    @Test
+    void processBatchTest_whenItemQueued_thenSuggestionSaved() {
+        itemRequestMatcher.onItemCreated(item(10L, owner, "Палатка", "Палатка для похода на двоих"));
+
+        assertEquals(1, itemRequestMatcher.processBatch());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<ItemRequestSuggestion>> captor = ArgumentCaptor.forClass(List.class);
+        verify(itemRequestSuggestionRepository).saveAll(captor.capture());
+        ItemRequestSuggestion suggestion = captor.getValue().get(0);
+        assertEquals(2L, suggestion.getItemRequest().getId());
+        assertEquals(10L, suggestion.getItem().getId());
+        assertEquals(0.75, suggestion.getScore(), 1e-9);
+    }
+
+    @Test
+    void processBatchTest_whenSaveFailsForOneItem_thenOtherItemsSaved() {
+        itemRequestMatcher = new ItemRequestMatcher(itemRequestRepository, itemRepository,
+                itemRequestSuggestionRepository, new SimpleMeterRegistry(), 2, 10, 0.5);
+        itemRequestMatcher.rebuild();
+        when(itemRequestSuggestionRepository.saveAll(any()))
+                .thenThrow(new IllegalStateException("save failed"))
+                .thenAnswer(input -> input.getArgument(0));
+        itemRequestMatcher.onItemCreated(item(10L, owner, "Дрель", "Ударная дрель"));
+        itemRequestMatcher.onItemCreated(item(11L, owner, "Палатка", "Палатка для похода на двоих"));
+
+        assertEquals(2, itemRequestMatcher.processBatch());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<ItemRequestSuggestion>> captor = ArgumentCaptor.forClass(List.class);
+        verify(itemRequestSuggestionRepository, times(2)).saveAll(captor.capture());
+        assertEquals(11L, captor.getAllValues().get(1).get(0).getItem().getId());
+    }
+
+    @Test
+    void onItemCreatedTest_whenQueueFull_thenItemSkipped() {
+        itemRequestMatcher.onItemCreated(item(10L, owner, "Дрель", "Ударная дрель"));
+        itemRequestMatcher.onItemCreated(item(11L, owner, "Дрель", "Ударная дрель"));
+
+        assertEquals(1, itemRequestMatcher.processBatch());
+        assertEquals(0, itemRequestMatcher.processBatch());
+    }
+
+    @Test
+    void onItemCreatedTest_whenItemAnswersRequest_thenRequestClosed() {
+        Item answer = item(10L, owner, "Дрель", "Ударная дрель");
+        answer.setItemRequest(drillRequest);
+
+        itemRequestMatcher.onItemCreated(answer);
+
+        assertEquals(0, itemRequestMatcher.processBatch());
+        assertEquals(Map.of(), itemRequestMatcher.match(item(11L, owner, "Дрель", "Ударная дрель")));
+        verify(itemRequestSuggestionRepository, never()).saveAll(any());
+    }
+
+    private Item item(long id, User owner, String name, String description) {
+        return Item.builder().id(id).owner(owner).name(name).description(description).available(true).build();
+    }
+}
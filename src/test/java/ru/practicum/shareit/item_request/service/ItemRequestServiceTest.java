@@ -10,9 +10,13 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import ru.practicum.shareit.TestHelper;
+import ru.practicum.shareit.exception.ForbiddenException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoMapper;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
@@ -21,15 +25,21 @@ import ru.practicum.shareit.item_request.dto.ItemRequestDtoMapper;
 import ru.practicum.shareit.item_request.dto.RequestBodyItemRequestDto;
 import ru.practicum.shareit.item_request.model.ItemRequest;
 import ru.practicum.shareit.item_request.repository.ItemRequestRepository;
+import ru.practicum.shareit.item_request.repository.ItemRequestSuggestionRepository;
+import ru.practicum.shareit.pagination.KeysetCursor;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
@@ -43,6 +53,16 @@ public class ItemRequestServiceTest {
     UserRepository userRepository;
     @Mock
     ItemRepository itemRepository;
+    @Mock
+    ItemRequestFeed itemRequestFeed;
+    @Mock
+    ItemRequestSuggestionRepository itemRequestSuggestionRepository;
+    @Mock
+    ItemRequestMatcher itemRequestMatcher;
+    @Mock
+    ItemRequestBroadcaster itemRequestBroadcaster;
+    @Mock
+    EntityManager entityManager;
     @InjectMocks
     ItemRequestServiceImpl itemRequestServiceimpl;
     User author;
@@ -93,11 +113,11 @@ public class ItemRequestServiceTest {
     void getItemRequestByIdTest_whenItemRequestPresent_thenItemRequest() {
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(author));
         when(itemRequestRepository.findById(any())).thenReturn(Optional.of(itemRequest));
-        when(itemRepository.findItemsByRequests(anyLong())).thenReturn(List.of(item));
+        when(itemRepository.findItemsByRequestIds(any())).thenReturn(List.of(item));
 
         ItemRequestDto result = itemRequestServiceimpl.getRequestById(2L, 1L);
 
-        verify(itemRepository, times(2)).findItemsByRequests(anyLong());
+        verify(itemRepository, times(1)).findItemsByRequestIds(List.of(1L));
         itemRequestDto.setItems(List.of(ItemDtoMapper.mapRow(item)));
         assertEquals(itemRequestDto, result);
     }
@@ -107,13 +127,62 @@ public class ItemRequestServiceTest {
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(author));
         when(itemRequestRepository.findById(anyLong())).thenReturn(Optional.empty());
 
-        verify(itemRepository, never()).findItemsByRequests(anyLong());
+        verify(itemRepository, never()).findItemsByRequestIds(any());
         assertThrows(NotFoundException.class, () -> itemRequestServiceimpl.getRequestById(2L, 2L));
     }
 
+    @Test
+    void getSuggestedItemsTest_whenAuthor_thenSuggestedItems() {
+        itemRequest.setAuthor(author);
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(author));
+        when(itemRequestRepository.findById(anyLong())).thenReturn(Optional.of(itemRequest));
+        when(itemRequestSuggestionRepository.findSuggestedItems(anyLong())).thenReturn(List.of(item));
+
+        List<ItemDto> result = itemRequestServiceimpl.getSuggestedItems(author.getId(), itemRequest.getId());
+
+        assertEquals(List.of(ItemDtoMapper.mapRow(item)), result);
+    }
+
+    @Test
+    void getSuggestedItemsTest_whenNotAuthor_thenThrowException() {
+        itemRequest.setAuthor(author);
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(owner));
+        when(itemRequestRepository.findById(anyLong())).thenReturn(Optional.of(itemRequest));
+
+        assertThrows(ForbiddenException.class, () -> itemRequestServiceimpl.getSuggestedItems(owner.getId(), itemRequest.getId()));
+        verify(itemRequestSuggestionRepository, never()).findSuggestedItems(anyLong());
+    }
+
+    @Test
+    void addItemRequestTest_whenSaved_thenIndexedForMatching() {
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(author));
+
+        itemRequestServiceimpl.addNewItemRequest(author.getId(), requestBodyItemRequestDto);
+
+        verify(itemRequestMatcher).onItemRequestCreated(any());
+    }
+
+    @Test
+    void addItemRequestTest_whenSaved_thenPublished() {
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(author));
+
+        itemRequestServiceimpl.addNewItemRequest(author.getId(), requestBodyItemRequestDto);
+
+        verify(itemRequestBroadcaster).publish(any());
+    }
+
+    @Test
+    void subscribeToItemRequestsTest_whenUserNotFound_thenThrowException() {
+        when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
+
+        assertThrows(NotFoundException.class, () -> itemRequestServiceimpl.subscribeToItemRequests(99L));
+        verify(itemRequestBroadcaster, never()).subscribe(anyLong());
+    }
+
     @Test
     void getItemRequestsTest() {
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(owner));
+        when(itemRequestFeed.page(anyLong(), anyInt(), anyInt())).thenReturn(null);
 
         List<ItemRequestDto> result = itemRequestServiceimpl.getAllItemRequests(1, 1, owner.getId());
 
@@ -121,6 +190,18 @@ public class ItemRequestServiceTest {
         assertEquals(new ArrayList<>(), result);
     }
 
+    @Test
+    void getItemRequestsTest_whenPageInFeed_thenRepositoryNotUsed() {
+        itemRequestDto.setItems(new ArrayList<>());
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(owner));
+        when(itemRequestFeed.page(anyLong(), anyInt(), anyInt())).thenReturn(List.of(itemRequestDto));
+
+        List<ItemRequestDto> result = itemRequestServiceimpl.getAllItemRequests(0, 10, owner.getId());
+
+        verify(itemRequestRepository, never()).findAllItemRequests(any(), any());
+        assertEquals(List.of(itemRequestDto), result);
+    }
+
     @Test
     void getOwnItemRequestsTest() {
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(owner));
@@ -131,4 +212,72 @@ public class ItemRequestServiceTest {
         assertEquals(new ArrayList<>(), result);
     }
 
+    @Test
+    void getOwnItemRequestsPageTest_whenFromIsNegative_thenThrowException() {
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(author));
+
+        assertThrows(ValidationException.class, () -> itemRequestServiceimpl.getOwnItemRequests(author.getId(), -1, 10));
+        verify(itemRequestRepository, never()).findItemRequestsByAuthor(any(), any(Pageable.class));
+    }
+
+    @Test
+    void getOwnItemRequestsPageTest_whenSizeMissing_thenThrowException() {
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(author));
+
+        assertThrows(ValidationException.class, () -> itemRequestServiceimpl.getOwnItemRequests(author.getId(), 10, null));
+        verify(itemRequestRepository, never()).findItemRequestsByAuthor(any());
+        verify(itemRequestRepository, never()).findItemRequestsByAuthor(any(), any(Pageable.class));
+    }
+
+    @Test
+    void getOwnItemRequestsAfterTest_whenCursorPresent_thenSeekAfterCursor() {
+        KeysetCursor cursor = new KeysetCursor(itemRequest.getCreated(), 5L);
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(author));
+        when(itemRequestRepository.findItemRequestsByAuthorAfter(any(), any(), anyLong(), any())).thenReturn(List.of(itemRequest));
+
+        List<ItemRequestDto> result = itemRequestServiceimpl.getOwnItemRequestsAfter(author.getId(), cursor.encode(), 10);
+
+        verify(itemRequestRepository).findItemRequestsByAuthorAfter(author, itemRequest.getCreated(), 5L, PageRequest.of(0, 10));
+        assertEquals(1, result.size());
+    }
+
+    @Test
+    void streamOwnItemRequestsTest_whenSeveralChunks_thenReadChunksOnDemand() {
+        List<ItemRequest> firstChunk = new ArrayList<>();
+        for (long id = ItemRequestServiceImpl.STREAM_CHUNK_SIZE + 1; id > 1; id--) {
+            firstChunk.add(ItemRequest.builder().id(id).author(author).created(itemRequest.getCreated())
+                    .description("itemRequestDesc").build());
+        }
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(author));
+        when(itemRequestRepository.findItemRequestsByAuthor(any(), any(Pageable.class))).thenReturn(firstChunk);
+        when(itemRequestRepository.findItemRequestsByAuthorAfter(any(), any(), anyLong(), any())).thenReturn(List.of(itemRequest));
+
+        Stream<ItemRequestDto> result = itemRequestServiceimpl.streamOwnItemRequests(author.getId());
+
+        verify(itemRequestRepository, times(1)).findItemRequestsByAuthor(any(), any(Pageable.class));
+        verify(itemRequestRepository, never()).findItemRequestsByAuthorAfter(any(), any(), anyLong(), any());
+        assertEquals(ItemRequestServiceImpl.STREAM_CHUNK_SIZE + 1, result.count());
+        verify(itemRequestRepository).findItemRequestsByAuthorAfter(author, itemRequest.getCreated(), 2L,
+                PageRequest.of(0, ItemRequestServiceImpl.STREAM_CHUNK_SIZE));
+        verify(entityManager, times(2)).clear();
+    }
+
+    @Test
+    void getOwnItemRequestsTest_whenSeveralRequests_thenItemsLoadedInOneQuery() {
+        ItemRequest otherItemRequest = ItemRequest.builder().id(2L).author(author).created(LocalDateTime.now())
+                .description("otherItemRequestDesc").build();
+        Item otherItem = Item.builder().id(2L).owner(owner).available(true).name("otherItemName")
+                .description("otherItemDesc").itemRequest(otherItemRequest).build();
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(author));
+        when(itemRequestRepository.findItemRequestsByAuthor(any())).thenReturn(List.of(itemRequest, otherItemRequest));
+        when(itemRepository.findItemsByRequestIds(any())).thenReturn(List.of(otherItem, item));
+
+        List<ItemRequestDto> result = itemRequestServiceimpl.getOwnItemRequests(author.getId());
+
+        verify(itemRepository, times(1)).findItemsByRequestIds(List.of(1L, 2L));
+        assertEquals(2, result.size());
+        assertEquals(List.of(ItemDtoMapper.mapRow(item)), result.get(0).getItems());
+        assertEquals(List.of(ItemDtoMapper.mapRow(otherItem)), result.get(1).getItems());
+    }
+
 }
@@ -0,0 +1,45 @@
+package ru.practicum.shareit.monitoring;
+
+import lombok.AccessLevel;
+import lombok.SneakyThrows;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:metrics")
+@AutoConfigureMockMvc
+@AutoConfigureMetrics
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class MetricsEndpointTest {
+    @Autowired
+    MockMvc mockMvc;
+
+    @SneakyThrows
+    @Test
+    void prometheusTest_thenLatencyHistogramsRepositoryTimingsAndErrors() {
+        mockMvc.perform(get("/users")).andExpect(status().is2xxSuccessful());
+        mockMvc.perform(get("/users/{userId}", 999)).andExpect(status().isNotFound());
+
+        String result = mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().is2xxSuccessful())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(StandardCharsets.UTF_8);
+
+        assertThat(result).contains("http_server_requests_seconds_bucket{exception=\"None\",method=\"GET\"");
+        assertThat(result).contains("http_server_requests_seconds{exception=\"None\",method=\"GET\"");
+        assertThat(result).contains("quantile=\"0.99\"");
+        assertThat(result).contains("spring_data_repository_invocations_seconds_bucket");
+        assertThat(result).contains("shareit_errors_total{exception=\"NotFoundException\",}");
+    }
+}
@@ -0,0 +1,154 @@
+package ru.practicum.shareit.monitoring;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AccessLevel;
+import lombok.SneakyThrows;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.item_request.model.ItemRequest;
+import ru.practicum.shareit.item_request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Верхние границы количества SQL-запросов на один HTTP-запрос при страницах по 20 элементов.
+ * Граница не должна зависеть от размера страницы: рост означает N+1.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:query-count")
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class QueryCountTest {
+    static final int PAGE_SIZE = 20;
+
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    ItemRepository itemRepository;
+    @Autowired
+    BookingRepository bookingRepository;
+    @Autowired
+    CommentRepository commentRepository;
+    @Autowired
+    ItemRequestRepository itemRequestRepository;
+    @Autowired
+    ItemSearchIndex itemSearchIndex;
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    User owner;
+    User booker;
+    Item item;
+    ItemRequest itemRequest;
+    final String headerUserValue = "X-Sharer-User-Id";
+
+    @BeforeAll
+    void beforeAll() {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        owner = userRepository.save(User.builder().name("owner").email("owner@query-count.ru").build());
+        booker = userRepository.save(User.builder().name("booker").email("booker@query-count.ru").build());
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            itemRequest = itemRequestRepository.save(ItemRequest.builder().author(booker).created(now.minusHours(i))
+                    .description("Нужна дрель " + i).build());
+            itemRepository.save(Item.builder().owner(owner).name("Ответ " + i).description("Дрель для заявки")
+                    .available(true).itemRequest(itemRequest).build());
+            item = itemRepository.save(Item.builder().owner(owner).name("Дрель " + i).description("Простая дрель")
+                    .available(true).build());
+            bookingRepository.save(Booking.builder().item(item).booker(booker).status(BookingStatus.APPROVED)
+                    .start(now.minusDays(2)).end(now.minusDays(1)).build());
+            bookingRepository.save(Booking.builder().item(item).booker(booker).status(BookingStatus.APPROVED)
+                    .start(now.plusDays(1)).end(now.plusDays(2)).build());
+            commentRepository.save(Comment.builder().item(item).author(booker).createDate(now)
+                    .text("Отличная дрель").build());
+        }
+        itemSearchIndex.rebuild();
+    }
+
+    @Test
+    void getOwnItems() {
+        assertThat(queryCount(get("/items").param("size", String.valueOf(PAGE_SIZE)), owner)).isLessThanOrEqualTo(5);
+    }
+
+    @Test
+    void getItemById() {
+        assertThat(queryCount(get("/items/{itemId}", item.getId()), owner)).isLessThanOrEqualTo(4);
+    }
+
+    @Test
+    void searchItems() {
+        assertThat(queryCount(get("/items/search").param("text", "дрель")
+                .param("size", String.valueOf(PAGE_SIZE)), booker)).isLessThanOrEqualTo(4);
+    }
+
+    @Test
+    void getBookingsOfBooker() {
+        assertThat(queryCount(get("/bookings").param("size", String.valueOf(PAGE_SIZE)), booker)).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void getBookingsOfOwner() {
+        assertThat(queryCount(get("/bookings/owner").param("size", String.valueOf(PAGE_SIZE)), owner)).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void getBookingCounts() {
+        assertThat(queryCount(get("/bookings/counts"), booker)).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    void getOwnItemRequests() {
+        assertThat(queryCount(get("/requests"), booker)).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    void getAllItemRequests() {
+        assertThat(queryCount(get("/requests/all").param("size", String.valueOf(PAGE_SIZE)), owner))
+                .isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    void getItemRequestById() {
+        assertThat(queryCount(get("/requests/{requestId}", itemRequest.getId()), owner)).isLessThanOrEqualTo(4);
+    }
+
+    @Test
+    void getUsers() {
+        assertThat(queryCount(get("/users"), owner)).isLessThanOrEqualTo(1);
+        assertThat(meterRegistry.get("shareit.http.sql.statements").tag("uri", "/users").summary().count())
+                .isGreaterThanOrEqualTo(1);
+    }
+
+    @SneakyThrows
+    private long queryCount(MockHttpServletRequestBuilder request, User user) {
+        String count = mockMvc.perform(request.header(headerUserValue, user.getId()))
+                .andExpect(status().is2xxSuccessful())
+                .andReturn()
+                .getResponse()
+                .getHeader(QueryCountResponseAdvice.HEADER_QUERY_COUNT);
+        return Long.parseLong(count);
+    }
+}
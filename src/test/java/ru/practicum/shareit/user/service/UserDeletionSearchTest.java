@@ -0,0 +1,65 @@
+package ru.practicum.shareit.user.service;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:user-deletion-search")
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class UserDeletionSearchTest {
+    @Autowired
+    UserService userService;
+    @Autowired
+    ItemService itemService;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    ItemRepository itemRepository;
+    @Autowired
+    ItemSearchIndex itemSearchIndex;
+
+    @Test
+    void searchTest_whenOwnersDeleted_thenPagesFilledFromRemainingItems() {
+        User first = userRepository.save(User.builder().name("first").email("first@deletion.ru").build());
+        User second = userRepository.save(User.builder().name("second").email("second@deletion.ru").build());
+        User third = userRepository.save(User.builder().name("third").email("third@deletion.ru").build());
+        List<Long> firstItemIds = new ArrayList<>();
+        for (User owner : List.of(second, third, first, first, first)) {
+            Item item = itemRepository.save(Item.builder().owner(owner).name("Дрель").description("Простая дрель")
+                    .available(true).build());
+            if (owner == first) {
+                firstItemIds.add(item.getId());
+            }
+        }
+        itemSearchIndex.rebuild();
+        itemService.getItemByNameOrDescription("дрель", first.getId(), 0, 2);
+
+        userService.deleteUser(second.getId());
+        userService.deleteUser(third.getId());
+
+        assertEquals(firstItemIds.subList(0, 2), ids(itemService.getItemByNameOrDescription("дрель", first.getId(), 0, 2)));
+        assertEquals(firstItemIds.subList(2, 3), ids(itemService.getItemByNameOrDescription("дрель", first.getId(), 2, 2)));
+    }
+
+    private List<Long> ids(List<ItemDto> itemsDto) {
+        List<Long> ids = new ArrayList<>();
+        for (ItemDto itemDto : itemsDto) {
+            ids.add(itemDto.getId());
+        }
+        return ids;
+    }
+}
@@ -11,9 +11,17 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 import ru.practicum.shareit.TestHelper;
+import ru.practicum.shareit.booking.service.BookingStateCounters;
+import ru.practicum.shareit.booking.service.LastAndNextBookingRegistry;
 import ru.practicum.shareit.exception.IsAlreadyExistsException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchCache;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.item.service.ItemDetailCache;
+import ru.practicum.shareit.item_request.service.ItemRequestFeed;
+import ru.practicum.shareit.item_request.service.ItemRequestMatcher;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.dto.UserDtoMapper;
 import ru.practicum.shareit.user.model.User;
@@ -33,6 +41,22 @@ import static org.mockito.Mockito.*;
 public class UserServiceTest {
     @Mock
     UserRepository userRepository;
+    @Mock
+    ItemRepository itemRepository;
+    @Mock
+    ItemSearchIndex itemSearchIndex;
+    @Mock
+    ItemSearchCache itemSearchCache;
+    @Mock
+    ItemDetailCache itemDetailCache;
+    @Mock
+    LastAndNextBookingRegistry lastAndNextBookingRegistry;
+    @Mock
+    BookingStateCounters bookingStateCounters;
+    @Mock
+    ItemRequestFeed itemRequestFeed;
+    @Mock
+    ItemRequestMatcher itemRequestMatcher;
     @InjectMocks
     UserServiceImpl userServiceImpl;
     User user;
@@ -180,7 +204,7 @@ public class UserServiceTest {
         UserDto userDto = UserDtoMapper.mapRow(user);
         UserDto userDtoFromDb = userServiceImpl.getUserById(userId);
 
-        verify(userRepository, times(2)).findById(userId);
+        verify(userRepository, times(1)).findById(userId);
         assertEquals(userDto, userDtoFromDb);
     }
 
@@ -200,4 +224,16 @@ public class UserServiceTest {
         userServiceImpl.deleteUser(userId);
         verify(userRepository).deleteById(userId);
     }
+
+    @Test
+    void deleteUserTest_whenUserOwnsItems_thenItemsRemovedFromSearch() {
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+        when(itemRepository.findItemIdsByOwner(user)).thenReturn(List.of(10L, 11L));
+
+        userServiceImpl.deleteUser(user.getId());
+
+        verify(itemSearchIndex).remove(10L);
+        verify(itemSearchIndex).remove(11L);
+        verify(itemSearchCache).clear();
+    }
 }